@@ -0,0 +1,280 @@
+package com.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    private final List<BoundedCache<?, ?>> caches = new ArrayList<>();
+
+    @AfterEach
+    void closeCaches() {
+        caches.forEach(BoundedCache::close);
+    }
+
+    private <K, V> BoundedCache<K, V> track(BoundedCache<K, V> cache) {
+        caches.add(cache);
+        return cache;
+    }
+
+    @Nested
+    @DisplayName("Eviction and admission")
+    class EvictionTests {
+
+        @Test
+        @DisplayName("Should never hold more entries than the maximum size")
+        void put_beyondMaximumSize_shouldEvictDownToMaximum() {
+            BoundedCache<String, Integer> cache = track(new BoundedCache<>(100, 0));
+
+            for (int i = 0; i < 250; i++) {
+                cache.put("key-" + i, i);
+            }
+
+            assertThat(cache.size()).isEqualTo(100);
+            assertThat(cache.weightedSize()).isEqualTo(100L);
+            assertThat(cache.stats().getEvictionCount()).isEqualTo(150L);
+        }
+
+        @Test
+        @DisplayName("Should keep a frequently read entry through a scan of new keys")
+        void put_scanOfColdKeys_shouldNotEvictHotEntry() {
+            BoundedCache<String, String> cache = track(new BoundedCache<>(100, 0));
+            cache.put("hot", "value");
+            for (int i = 0; i < 10; i++) {
+                assertThat(cache.get("hot")).isEqualTo("value");
+            }
+
+            for (int i = 0; i < 1000; i++) {
+                cache.put("cold-" + i, "value");
+            }
+
+            assertThat(cache.get("hot")).isEqualTo("value");
+        }
+
+        @Test
+        @DisplayName("Should bound by total weight and drop entries heavier than the maximum")
+        void put_withWeigher_shouldBoundByWeight() {
+            BoundedCache<String, String> cache = track(new BoundedCache<>(10, 0, (key, value) -> value.length()));
+
+            cache.put("too-big", "x".repeat(11));
+            assertThat(cache.get("too-big")).isNull();
+
+            for (int i = 0; i < 10; i++) {
+                cache.put("key-" + i, "xxx");
+            }
+            assertThat(cache.weightedSize()).isLessThanOrEqualTo(10L);
+            assertThat(cache.size()).isLessThanOrEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should replace the value and weight of an existing key")
+        void put_existingKey_shouldReplaceValue() {
+            BoundedCache<String, String> cache = track(new BoundedCache<>(10, 0, (key, value) -> value.length()));
+
+            cache.put("key", "aaaa");
+            cache.put("key", "bb");
+
+            assertThat(cache.get("key")).isEqualTo("bb");
+            assertThat(cache.weightedSize()).isEqualTo(2L);
+        }
+
+        @Test
+        @DisplayName("Should reject null keys and values")
+        void put_null_shouldThrow() {
+            BoundedCache<String, String> cache = track(new BoundedCache<>(10, 0));
+
+            assertThatThrownBy(() -> cache.put(null, "value")).isInstanceOf(NullPointerException.class);
+            assertThatThrownBy(() -> cache.put("key", null)).isInstanceOf(NullPointerException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Expiry")
+    class ExpiryTests {
+
+        @Test
+        @DisplayName("Should not return an entry after its time to live")
+        void get_afterTtl_shouldReturnNull() throws InterruptedException {
+            BoundedCache<String, String> cache = track(new BoundedCache<>(10, 0));
+            cache.put("short", "value", 50);
+            cache.put("long", "value");
+
+            Thread.sleep(100);
+
+            assertThat(cache.get("short")).isNull();
+            assertThat(cache.get("long")).isEqualTo("value");
+            assertThat(cache.stats().getExpirationCount()).isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("Should remove expired entries that are never read again")
+        void cleanUp_afterTtl_shouldRemoveUnreadEntries() throws InterruptedException {
+            BoundedCache<String, String> cache = track(new BoundedCache<>(10, 100));
+            cache.put("a", "value");
+            cache.put("b", "value");
+
+            // Expiry runs on one-second ticks
+            Thread.sleep(1200);
+            cache.cleanUp();
+
+            assertThat(cache.size()).isEqualTo(0);
+            assertThat(cache.weightedSize()).isEqualTo(0L);
+        }
+
+        @Test
+        @DisplayName("Should let an unclosed cache be garbage collected")
+        void expiryScheduler_unclosedCache_shouldNotRetainCache() throws InterruptedException {
+            BoundedCache<String, String> cache = new BoundedCache<>(10, 100);
+            cache.put("key", "value");
+            WeakReference<BoundedCache<String, String>> reference = new WeakReference<>(cache);
+            cache = null;
+
+            for (int i = 0; i < 50 && reference.get() != null; i++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+
+            assertThat(reference.get()).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Loading")
+    class LoadingTests {
+
+        @Test
+        @DisplayName("Should return but not cache a null load result")
+        void getOrLoad_nullResult_shouldNotCache() {
+            BoundedCache<String, String> cache = track(new BoundedCache<>(10, 0));
+            AtomicInteger loads = new AtomicInteger();
+
+            assertThat(cache.getOrLoad("missing", key -> {
+                loads.incrementAndGet();
+                return null;
+            })).isNull();
+            assertThat(cache.getOrLoad("missing", key -> {
+                loads.incrementAndGet();
+                return null;
+            })).isNull();
+
+            assertThat(loads.get()).isEqualTo(2);
+            assertThat(cache.size()).isEqualTo(0);
+        }
+
+        @Test
+        @DisplayName("Should propagate a loader failure and load again on the next call")
+        void getOrLoad_loaderThrows_shouldPropagateAndRetry() {
+            BoundedCache<String, String> cache = track(new BoundedCache<>(10, 0));
+
+            assertThatThrownBy(() -> cache.getOrLoad("key", key -> {
+                throw new IllegalStateException("boom");
+            })).isInstanceOf(IllegalStateException.class);
+
+            assertThat(cache.getOrLoad("key", key -> "loaded")).isEqualTo("loaded");
+            assertThat(cache.stats().getLoadFailureCount()).isEqualTo(1L);
+            assertThat(cache.get("key")).isEqualTo("loaded");
+        }
+
+        @Test
+        @DisplayName("Should share one load between concurrent callers of the same key")
+        void getOrLoad_concurrentCallers_shouldLoadOnce() throws Exception {
+            BoundedCache<String, String> cache = track(new BoundedCache<>(10, 0));
+            AtomicInteger loads = new AtomicInteger();
+            CountDownLatch loaderStarted = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<String>> results = new ArrayList<>();
+                results.add(executor.submit(() -> cache.getOrLoad("key", key -> {
+                    loads.incrementAndGet();
+                    loaderStarted.countDown();
+                    await(release);
+                    return "value";
+                })));
+                assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+                for (int i = 0; i < 7; i++) {
+                    results.add(executor.submit(() -> cache.getOrLoad("key", key -> {
+                        loads.incrementAndGet();
+                        return "other";
+                    })));
+                }
+                // Give the joining callers time to reach the in-flight load
+                Thread.sleep(100);
+                release.countDown();
+
+                for (Future<String> result : results) {
+                    assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+                }
+                assertThat(loads.get()).isEqualTo(1);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrency")
+    class ConcurrencyTests {
+
+        @Test
+        @DisplayName("Should stay within bounds and consistent under concurrent puts, gets and removes")
+        void concurrentOperations_shouldKeepSizeAndWeightConsistent() throws Exception {
+            BoundedCache<Integer, Integer> cache = track(new BoundedCache<>(100, 0));
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    workers.add(executor.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int i = 0; i < 20_000; i++) {
+                            int key = random.nextInt(1000);
+                            int operation = random.nextInt(10);
+                            if (operation < 5) {
+                                Integer value = cache.get(key);
+                                if (value != null) {
+                                    assertThat(value).isEqualTo(key);
+                                }
+                            } else if (operation < 9) {
+                                cache.put(key, key);
+                            } else {
+                                cache.remove(key);
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertThat(cache.size()).isLessThanOrEqualTo(100);
+            assertThat(cache.weightedSize()).isEqualTo((long) cache.size());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
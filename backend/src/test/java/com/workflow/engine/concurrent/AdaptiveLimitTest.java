@@ -0,0 +1,174 @@
+package com.workflow.engine.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdaptiveLimitTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(400);
+
+    /**
+     * Admits as many calls as the limit allows, then ends them all with the given latency.
+     */
+    private static void runFullRound(AdaptiveLimit limit, long latencyNanos, long now) {
+        int admitted = 0;
+        while (limit.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limit.release(latencyNanos, now);
+        }
+    }
+
+    @Nested
+    @DisplayName("Admission")
+    class AdmissionTests {
+
+        @Test
+        @DisplayName("Should reject calls beyond the current limit until one is released")
+        void tryAcquire_atLimit_shouldReject() {
+            AdaptiveLimit limit = new AdaptiveLimit(2, 1, 10, TARGET);
+
+            assertThat(limit.tryAcquire()).isTrue();
+            assertThat(limit.tryAcquire()).isTrue();
+            assertThat(limit.tryAcquire()).isFalse();
+
+            limit.release(FAST, 0);
+            assertThat(limit.getInFlight()).isEqualTo(1);
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should clamp the initial limit to the configured bounds")
+        void constructor_initialOutOfBounds_shouldClamp() {
+            assertThat(new AdaptiveLimit(50, 1, 6, TARGET).getLimit()).isEqualTo(6);
+            assertThat(new AdaptiveLimit(0, 2, 6, TARGET).getLimit()).isEqualTo(2);
+            assertThat(new AdaptiveLimit(4, 0, 0, TARGET).getLimit()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Increase")
+    class IncreaseTests {
+
+        @Test
+        @DisplayName("Should grow while fast calls keep the limit in use")
+        void release_fastAndSaturated_shouldIncrease() {
+            AdaptiveLimit limit = new AdaptiveLimit(4, 1, 10, TARGET);
+
+            for (int round = 0; round < 5; round++) {
+                runFullRound(limit, FAST, round);
+            }
+
+            assertThat(limit.getLimit()).isGreaterThan(4);
+        }
+
+        @Test
+        @DisplayName("Should not grow while most of the limit is unused")
+        void release_fastButIdle_shouldKeepLimit() {
+            AdaptiveLimit limit = new AdaptiveLimit(4, 1, 10, TARGET);
+
+            for (int i = 0; i < 100; i++) {
+                assertThat(limit.tryAcquire()).isTrue();
+                limit.release(FAST, i);
+            }
+
+            assertThat(limit.getLimit()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Should never grow beyond the maximum")
+        void release_manyFastRounds_shouldStopAtMaximum() {
+            AdaptiveLimit limit = new AdaptiveLimit(4, 1, 8, TARGET);
+
+            for (int round = 0; round < 200; round++) {
+                runFullRound(limit, FAST, round);
+            }
+
+            assertThat(limit.getLimit()).isEqualTo(8);
+        }
+    }
+
+    @Nested
+    @DisplayName("Decrease")
+    class DecreaseTests {
+
+        @Test
+        @DisplayName("Should shrink by at most half when calls are slower than the target")
+        void release_slow_shouldHalveLimit() {
+            AdaptiveLimit limit = new AdaptiveLimit(8, 1, 10, TARGET);
+
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(SLOW, SLOW);
+
+            assertThat(limit.getLimit()).isEqualTo(4);
+            assertThat(limit.getSmoothedLatencyMillis()).isEqualTo(400L);
+        }
+
+        @Test
+        @DisplayName("Should shrink in proportion to a small overshoot")
+        void release_slightlySlow_shouldShrinkProportionally() {
+            AdaptiveLimit limit = new AdaptiveLimit(10, 1, 10, TARGET);
+            long latency = TimeUnit.MILLISECONDS.toNanos(125);
+
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(latency, latency);
+
+            assertThat(limit.getLimit()).isEqualTo(8);
+        }
+
+        @Test
+        @DisplayName("Should shrink at most once per smoothed latency")
+        void release_slowBurst_shouldShrinkOnce() {
+            AdaptiveLimit limit = new AdaptiveLimit(8, 1, 10, TARGET);
+            for (int i = 0; i < 4; i++) {
+                assertThat(limit.tryAcquire()).isTrue();
+            }
+
+            long now = SLOW;
+            for (int i = 0; i < 4; i++) {
+                limit.release(SLOW, now + i);
+            }
+
+            assertThat(limit.getLimit()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("Should never shrink below the minimum")
+        void release_manySlowRounds_shouldStopAtMinimum() {
+            AdaptiveLimit limit = new AdaptiveLimit(8, 2, 10, TARGET);
+
+            long now = 0;
+            for (int i = 0; i < 20; i++) {
+                now += SLOW;
+                assertThat(limit.tryAcquire()).isTrue();
+                limit.release(SLOW, now);
+            }
+
+            assertThat(limit.getLimit()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should grow again once calls are fast after a slow period")
+        void release_recovery_shouldIncreaseAgain() {
+            AdaptiveLimit limit = new AdaptiveLimit(8, 1, 10, TARGET);
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.release(SLOW, SLOW);
+            assertThat(limit.getLimit()).isEqualTo(4);
+
+            for (int round = 0; round < 50; round++) {
+                runFullRound(limit, FAST, SLOW + round);
+            }
+
+            assertThat(limit.getLimit()).isGreaterThan(4);
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.workflow.engine.history;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.event.HistoricActivityInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AsyncHistoryEventWriterTest {
+
+    private static final BpmnModelInstance STRAIGHT_THROUGH = Bpmn.createExecutableProcess("straightThrough")
+            .camundaHistoryTimeToLive(30)
+            .startEvent("start")
+            .endEvent("end")
+            .done();
+
+    private static final BpmnModelInstance WITH_USER_TASK = Bpmn.createExecutableProcess("withUserTask")
+            .camundaHistoryTimeToLive(30)
+            .startEvent("start")
+            .userTask("review")
+            .endEvent("end")
+            .done();
+
+    private AsyncHistoryEventWriter writer;
+    private ProcessEngine processEngine;
+
+    private void startEngine(String mode) {
+        writer = new AsyncHistoryEventWriter(mode, 1000);
+        ReflectionTestUtils.setField(writer, "batchSize", 1000);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 200L);
+        ReflectionTestUtils.setField(writer, "enqueueTimeoutMs", 50L);
+        ReflectionTestUtils.setField(writer, "ackTimeoutMs", 5000L);
+
+        ProcessEngineConfigurationImpl configuration = (ProcessEngineConfigurationImpl) ProcessEngineConfiguration
+                .createStandaloneInMemProcessEngineConfiguration()
+                .setJdbcUrl("jdbc:h2:mem:async-history-" + UUID.randomUUID())
+                .setHistory(ProcessEngineConfiguration.HISTORY_FULL)
+                .setJobExecutorActivate(false);
+        configuration.setEnableDefaultDbHistoryEventHandler(false);
+        configuration.setCustomHistoryEventHandlers(List.of(writer));
+        processEngine = configuration.buildProcessEngine();
+        writer.start(configuration.getCommandExecutorTxRequiresNew());
+
+        processEngine.getRepositoryService().createDeployment()
+                .addModelInstance("straightThrough.bpmn", STRAIGHT_THROUGH)
+                .addModelInstance("withUserTask.bpmn", WITH_USER_TASK)
+                .deploy();
+    }
+
+    @AfterEach
+    void stopEngine() throws InterruptedException {
+        if (writer != null) {
+            writer.stop();
+        }
+        if (processEngine != null) {
+            processEngine.close();
+        }
+    }
+
+    private void assertEnded(String processInstanceId) {
+        HistoryService historyService = processEngine.getHistoryService();
+        HistoricProcessInstance instance = historyService.createHistoricProcessInstanceQuery()
+                .processInstanceId(processInstanceId)
+                .singleResult();
+        assertThat(instance).isNotNull();
+        assertThat(instance.getStartTime()).isNotNull();
+        assertThat(instance.getEndTime()).isNotNull();
+        assertThat(instance.getDurationInMillis()).isNotNull();
+
+        List<HistoricActivityInstance> activities = historyService.createHistoricActivityInstanceQuery()
+                .processInstanceId(processInstanceId)
+                .list();
+        assertThat(activities).isNotEmpty();
+        for (HistoricActivityInstance activity : activities) {
+            assertThat(activity.getStartTime()).isNotNull();
+            assertThat(activity.getEndTime()).isNotNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Batched writes through the engine")
+    class EngineTests {
+
+        @Test
+        @DisplayName("Should record the end of an instance that starts and ends in one transaction")
+        void write_startAndEndInOneTransaction_shouldSetEndTime() {
+            startEngine("async-with-ack");
+
+            ProcessInstance instance = processEngine.getRuntimeService().startProcessInstanceByKey("straightThrough");
+
+            assertEnded(instance.getId());
+        }
+
+        @Test
+        @DisplayName("Should record the end of an instance ended by a later transaction in the same batch")
+        void write_startAndEndInOneBatch_shouldSetEndTime() throws InterruptedException {
+            startEngine("async");
+
+            ProcessInstance instance = processEngine.getRuntimeService().startProcessInstanceByKey("withUserTask");
+            Task task = processEngine.getTaskService().createTaskQuery()
+                    .processInstanceId(instance.getId())
+                    .singleResult();
+            processEngine.getTaskService().complete(task.getId());
+            // Drains the queue; both transactions are usually still in one batch
+            writer.stop();
+
+            assertEnded(instance.getId());
+            assertThat(processEngine.getHistoryService().createHistoricTaskInstanceQuery()
+                    .processInstanceId(instance.getId())
+                    .singleResult()
+                    .getEndTime()).isNotNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("Folding events of one entity")
+    class FoldTests {
+
+        private HistoricActivityInstanceEventEntity activityEvent(HistoryEventTypes type, Date start, Date end) {
+            HistoricActivityInstanceEventEntity event = new HistoricActivityInstanceEventEntity();
+            event.setId("activity-1");
+            event.setEventType(type.getEventName());
+            event.setStartTime(start);
+            event.setEndTime(end);
+            return event;
+        }
+
+        @Test
+        @DisplayName("Should insert the latest state when the entity is first inserted in the batch")
+        void fold_insertThenUpdate_shouldInsertLatest() {
+            writer = new AsyncHistoryEventWriter("async", 10);
+            Date start = new Date(1_000);
+            Date end = new Date(3_500);
+            HistoricActivityInstanceEventEntity started =
+                    activityEvent(HistoryEventTypes.ACTIVITY_INSTANCE_START, start, null);
+            HistoricActivityInstanceEventEntity ended =
+                    activityEvent(HistoryEventTypes.ACTIVITY_INSTANCE_END, null, end);
+
+            BitSet inserts = new BitSet();
+            List<HistoryEvent> folded = writer.fold(List.of(started, ended), inserts);
+
+            assertThat(folded).containsExactly(ended);
+            assertThat(inserts.get(0)).isTrue();
+            assertThat(ended.getStartTime()).isEqualTo(start);
+            assertThat(ended.getDurationInMillis()).isEqualTo(2_500L);
+        }
+
+        @Test
+        @DisplayName("Should keep only the latest of several updates, written as an update")
+        void fold_updatesOnly_shouldUpdateWithLatest() {
+            writer = new AsyncHistoryEventWriter("async", 10);
+            HistoricActivityInstanceEventEntity first =
+                    activityEvent(HistoryEventTypes.ACTIVITY_INSTANCE_UPDATE, null, null);
+            HistoricActivityInstanceEventEntity last =
+                    activityEvent(HistoryEventTypes.ACTIVITY_INSTANCE_END, null, new Date(2_000));
+
+            BitSet inserts = new BitSet();
+            List<HistoryEvent> folded = writer.fold(List.of(first, last), inserts);
+
+            assertThat(folded).containsExactly(last);
+            assertThat(inserts.isEmpty()).isTrue();
+        }
+    }
+
+}
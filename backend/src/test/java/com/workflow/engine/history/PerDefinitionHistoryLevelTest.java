@@ -0,0 +1,104 @@
+package com.workflow.engine.history;
+
+import com.workflow.engine.config.HistoryProperties;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PerDefinitionHistoryLevelTest {
+
+    private ProcessEngineConfigurationImpl configuration;
+    private ProcessEngine processEngine;
+    private PerDefinitionHistoryLevel historyLevel;
+
+    private static BpmnModelInstance userTaskProcess(String key) {
+        return Bpmn.createExecutableProcess(key)
+                .camundaHistoryTimeToLive(30)
+                .startEvent("start")
+                .userTask("review")
+                .endEvent("end")
+                .done();
+    }
+
+    @BeforeEach
+    void startEngine() {
+        HistoryProperties historyProperties = new HistoryProperties();
+        historyProperties.getLevels().put("quietProcess", "activity");
+        ProcessHistoryLevelResolver resolver = new ProcessHistoryLevelResolver(historyProperties);
+        historyLevel = new PerDefinitionHistoryLevel(resolver);
+
+        configuration = (ProcessEngineConfigurationImpl) ProcessEngineConfiguration
+                .createStandaloneInMemProcessEngineConfiguration()
+                .setJdbcUrl("jdbc:h2:mem:history-level-" + UUID.randomUUID())
+                .setJobExecutorActivate(false);
+        configuration.setCustomHistoryLevels(List.of(historyLevel));
+        configuration.setHistory(historyLevel.getName());
+        configuration.setCustomPreBPMNParseListeners(List.of(new HistoryLevelParseListener(resolver)));
+        processEngine = configuration.buildProcessEngine();
+
+        processEngine.getRepositoryService().createDeployment()
+                .addModelInstance("quietProcess.bpmn", userTaskProcess("quietProcess"))
+                .addModelInstance("fullProcess.bpmn", userTaskProcess("fullProcess"))
+                .deploy();
+    }
+
+    @AfterEach
+    void stopEngine() {
+        processEngine.close();
+    }
+
+    private String startWithVariables(String processKey) {
+        ProcessInstance instance = processEngine.getRuntimeService()
+                .startProcessInstanceByKey(processKey, Map.of("amount", 100));
+        processEngine.getRuntimeService().setVariable(instance.getId(), "amount", 250);
+        return instance.getId();
+    }
+
+    @Test
+    @DisplayName("Should run the engine on the per-definition level instead of built-in FULL")
+    void buildProcessEngine_shouldSelectPerDefinitionLevel() {
+        assertThat(configuration.getHistoryLevel()).isSameAs(historyLevel);
+        assertThat(configuration.getHistoryLevel().getId()).isEqualTo(PerDefinitionHistoryLevel.ID);
+    }
+
+    @Test
+    @DisplayName("Should write no variable history for a definition set to activity")
+    void start_activityLevelDefinition_shouldWriteNoVariableHistory() {
+        String processInstanceId = startWithVariables("quietProcess");
+
+        HistoryService historyService = processEngine.getHistoryService();
+        assertThat(historyService.createHistoricVariableInstanceQuery()
+                .processInstanceId(processInstanceId).count()).isEqualTo(0L);
+        assertThat(historyService.createHistoricDetailQuery()
+                .processInstanceId(processInstanceId).count()).isEqualTo(0L);
+        assertThat(historyService.createHistoricActivityInstanceQuery()
+                .processInstanceId(processInstanceId).count()).isGreaterThan(0L);
+    }
+
+    @Test
+    @DisplayName("Should keep full variable history for other definitions")
+    void start_defaultDefinition_shouldWriteVariableHistory() {
+        String processInstanceId = startWithVariables("fullProcess");
+
+        HistoryService historyService = processEngine.getHistoryService();
+        assertThat(historyService.createHistoricVariableInstanceQuery()
+                .processInstanceId(processInstanceId).count()).isEqualTo(1L);
+        assertThat(historyService.createHistoricDetailQuery()
+                .processInstanceId(processInstanceId).count()).isGreaterThanOrEqualTo(2L);
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.workflow.engine.history.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HistoryArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private HistoryArchive historyArchive;
+
+    @BeforeEach
+    void setUp() {
+        // Two entries per block, so a segment of five instances spans three blocks
+        historyArchive = new HistoryArchive(new ObjectMapper(), directory.toString(), 2);
+    }
+
+    private static List<Map<String, Object>> records(String... processInstanceIds) {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (String id : processInstanceIds) {
+            records.add(Map.of("processInstanceId", id, "businessKey", "KEY-" + id));
+        }
+        return records;
+    }
+
+    @Nested
+    @DisplayName("Bulk Lookup")
+    class FindArchivedTests {
+
+        @Test
+        @DisplayName("Should return only the archived ids, across segments and blocks")
+        void findArchived_mixedIds_shouldReturnArchivedOnes() throws IOException {
+            // Arrange
+            historyArchive.append(records("proc-10", "proc-20", "proc-30", "proc-40", "proc-50"));
+            historyArchive.append(records("proc-60", "proc-70"));
+
+            // Act
+            Set<String> archived = historyArchive.findArchived(List.of(
+                    "proc-05", "proc-10", "proc-25", "proc-30", "proc-50", "proc-55", "proc-70", "proc-99"));
+
+            // Assert
+            assertThat(archived).containsExactlyInAnyOrder("proc-10", "proc-30", "proc-50", "proc-70");
+        }
+
+        @Test
+        @DisplayName("Should agree with single lookups after the segments are reloaded")
+        void findArchived_afterReload_shouldMatchContains() throws IOException {
+            // Arrange
+            historyArchive.append(records("proc-1", "proc-2", "proc-3"));
+            HistoryArchive reloaded = new HistoryArchive(new ObjectMapper(), directory.toString(), 2);
+            reloaded.loadSegments();
+            List<String> ids = List.of("proc-0", "proc-1", "proc-2", "proc-3", "proc-4");
+
+            // Act
+            Set<String> archived = reloaded.findArchived(ids);
+
+            // Assert
+            for (String id : ids) {
+                assertThat(archived.contains(id)).as(id).isEqualTo(reloaded.contains(id));
+            }
+        }
+
+        @Test
+        @DisplayName("Should return nothing when the archive is empty")
+        void findArchived_emptyArchive_shouldReturnEmpty() {
+            assertThat(historyArchive.findArchived(List.of("proc-1"))).isEmpty();
+        }
+    }
+
+}
@@ -1,8 +1,11 @@
 package com.workflow.service;
 
+import com.workflow.engine.cache.RequestCoalescer;
 import com.workflow.engine.entity.WorkflowInstance;
+import com.workflow.engine.history.archive.HistoryArchive;
 import com.workflow.engine.repository.WorkflowInstanceRepository;
 import com.workflow.engine.service.ProcessService;
+import com.workflow.engine.service.StartKeyLookupService;
 import org.camunda.bpm.engine.HistoryService;
 import org.camunda.bpm.engine.RepositoryService;
 import org.camunda.bpm.engine.RuntimeService;
@@ -23,15 +26,25 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -52,6 +65,18 @@ class ProcessServiceTest {
     @Mock
     private WorkflowInstanceRepository workflowInstanceRepository;
 
+    @Mock
+    private HistoryArchive historyArchive;
+
+    @Spy
+    private RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+    @Mock
+    private StartKeyLookupService startKeyLookupService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private ProcessService processService;
 
@@ -67,6 +92,12 @@ class ProcessServiceTest {
         SecurityContextHolder.setContext(securityContext);
     }
 
+    @BeforeEach
+    void setUpTransactionTemplate() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
     @Nested
     @DisplayName("Process Start Tests")
     class StartProcessTests {
@@ -104,6 +135,7 @@ class ProcessServiceTest {
             WorkflowInstance tracked = workflowInstanceCaptor.getValue();
             assertThat(tracked.getProcessDefinitionKey()).isEqualTo("approval-process");
             assertThat(tracked.getBusinessKey()).isEqualTo("ORDER-2024-001");
+            assertThat(tracked.getProcessInstanceId()).isEqualTo("proc-instance-123");
             assertThat(tracked.getStatus()).isEqualTo(WorkflowInstance.Status.ACTIVE);
             assertThat(tracked.getStartedBy()).isEqualTo("testuser");
             assertThat(tracked.getStartedAt()).isNotNull();
@@ -187,6 +219,136 @@ class ProcessServiceTest {
     // Apply defensive programming practices
             assertThat(workflowInstanceCaptor.getValue().getStartedBy()).isEqualTo("system");
         }
+
+        @Test
+        @DisplayName("Should return the existing instance when a business key is started again")
+        void startProcess_retriedBusinessKey_shouldReturnExistingInstance() {
+            // Arrange
+            WorkflowInstance existing = WorkflowInstance.builder()
+                    .processDefinitionKey("approval-process")
+                    .businessKey("ORDER-2024-001")
+                    .processInstanceId("proc-instance-123")
+                    .status(WorkflowInstance.Status.ACTIVE)
+                    .build();
+            ProcessInstanceQuery processQuery = mock(ProcessInstanceQuery.class);
+
+            when(startKeyLookupService.isEnabled()).thenReturn(true);
+            when(startKeyLookupService.mightExist("approval-process", "ORDER-2024-001")).thenReturn(true);
+            when(workflowInstanceRepository.findByProcessDefinitionKeyAndBusinessKey(
+                    "approval-process", "ORDER-2024-001")).thenReturn(Optional.of(existing));
+            when(runtimeService.createProcessInstanceQuery()).thenReturn(processQuery);
+            when(processQuery.processInstanceId("proc-instance-123")).thenReturn(processQuery);
+            when(processQuery.singleResult()).thenReturn(processInstance);
+
+            // Act
+            ProcessInstance result = processService.startProcess("approval-process", "ORDER-2024-001", Map.of());
+
+            // Assert
+            assertThat(result).isEqualTo(processInstance);
+            verify(runtimeService, never()).startProcessInstanceByKey(anyString(), anyString(), anyMap());
+            verify(workflowInstanceRepository, never()).save(any(WorkflowInstance.class));
+        }
+
+        @Test
+        @DisplayName("Should skip the duplicate lookup for a business key not seen recently")
+        void startProcess_newBusinessKey_shouldStartWithoutLookup() {
+            // Arrange
+            when(startKeyLookupService.isEnabled()).thenReturn(true);
+            when(startKeyLookupService.mightExist("approval-process", "ORDER-2024-002")).thenReturn(false);
+            when(runtimeService.startProcessInstanceByKey("approval-process", "ORDER-2024-002", Map.of()))
+                    .thenReturn(processInstance);
+            when(processInstance.getId()).thenReturn("proc-instance-456");
+            when(workflowInstanceRepository.save(any(WorkflowInstance.class)))
+                    .thenAnswer(invocation -> invocation.getArgument(0));
+
+            // Act
+            processService.startProcess("approval-process", "ORDER-2024-002", Map.of());
+
+            // Assert
+            verify(workflowInstanceRepository, never())
+                    .findByProcessDefinitionKeyAndBusinessKey(anyString(), anyString());
+            verify(startKeyLookupService).record("approval-process", "ORDER-2024-002");
+        }
+
+        @Test
+        @DisplayName("Should return the winning instance when the filter misses a business key that exists")
+        void startProcess_filterMissButRowExists_shouldReturnExistingInstance() {
+            // Arrange
+            WorkflowInstance existing = WorkflowInstance.builder()
+                    .processDefinitionKey("approval-process")
+                    .businessKey("ORDER-2023-999")
+                    .processInstanceId("proc-instance-789")
+                    .status(WorkflowInstance.Status.ACTIVE)
+                    .build();
+            ProcessInstanceQuery processQuery = mock(ProcessInstanceQuery.class);
+            ProcessInstance duplicate = mock(ProcessInstance.class);
+
+            when(startKeyLookupService.isEnabled()).thenReturn(true);
+            when(startKeyLookupService.mightExist("approval-process", "ORDER-2023-999")).thenReturn(false);
+            when(runtimeService.startProcessInstanceByKey("approval-process", "ORDER-2023-999", Map.of()))
+                    .thenReturn(duplicate);
+            when(duplicate.getId()).thenReturn("proc-instance-duplicate");
+            when(workflowInstanceRepository.save(any(WorkflowInstance.class)))
+                    .thenThrow(new DataIntegrityViolationException("uk_workflow_instances_business_key"));
+            when(workflowInstanceRepository.findByProcessDefinitionKeyAndBusinessKey(
+                    "approval-process", "ORDER-2023-999")).thenReturn(Optional.of(existing));
+            when(runtimeService.createProcessInstanceQuery()).thenReturn(processQuery);
+            when(processQuery.processInstanceId("proc-instance-789")).thenReturn(processQuery);
+            when(processQuery.singleResult()).thenReturn(processInstance);
+
+            // Act
+            ProcessInstance result = processService.startProcess("approval-process", "ORDER-2023-999", Map.of());
+
+            // Assert
+            assertThat(result).isEqualTo(processInstance);
+            verify(startKeyLookupService).record("approval-process", "ORDER-2023-999");
+        }
+
+        @Test
+        @DisplayName("Should rethrow a conflict when no row holds the business key")
+        void startProcess_conflictWithoutRow_shouldRethrow() {
+            // Arrange
+            when(startKeyLookupService.isEnabled()).thenReturn(true);
+            when(startKeyLookupService.mightExist("approval-process", "ORDER-2024-003")).thenReturn(false);
+            when(runtimeService.startProcessInstanceByKey("approval-process", "ORDER-2024-003", Map.of()))
+                    .thenReturn(processInstance);
+            when(processInstance.getId()).thenReturn("proc-instance-321");
+            when(workflowInstanceRepository.save(any(WorkflowInstance.class)))
+                    .thenThrow(new DataIntegrityViolationException("uk_workflow_instances_business_key"));
+
+            // Act & Assert
+            assertThatThrownBy(() -> processService.startProcess("approval-process", "ORDER-2024-003", Map.of()))
+                    .isInstanceOf(DataIntegrityViolationException.class);
+            verify(startKeyLookupService, never()).record(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should look up every business key when the filter is disabled")
+        void startProcess_filterDisabled_shouldLookUpBusinessKey() {
+            // Arrange
+            WorkflowInstance existing = WorkflowInstance.builder()
+                    .processDefinitionKey("approval-process")
+                    .businessKey("ORDER-2024-004")
+                    .processInstanceId("proc-instance-654")
+                    .status(WorkflowInstance.Status.ACTIVE)
+                    .build();
+            ProcessInstanceQuery processQuery = mock(ProcessInstanceQuery.class);
+
+            when(startKeyLookupService.isEnabled()).thenReturn(false);
+            when(workflowInstanceRepository.findByProcessDefinitionKeyAndBusinessKey(
+                    "approval-process", "ORDER-2024-004")).thenReturn(Optional.of(existing));
+            when(runtimeService.createProcessInstanceQuery()).thenReturn(processQuery);
+            when(processQuery.processInstanceId("proc-instance-654")).thenReturn(processQuery);
+            when(processQuery.singleResult()).thenReturn(processInstance);
+
+            // Act
+            ProcessInstance result = processService.startProcess("approval-process", "ORDER-2024-004", Map.of());
+
+            // Assert
+            assertThat(result).isEqualTo(processInstance);
+            verify(startKeyLookupService, never()).mightExist(anyString(), anyString());
+            verify(runtimeService, never()).startProcessInstanceByKey(anyString(), anyString(), anyMap());
+        }
     }
 
     @Nested
@@ -342,6 +504,92 @@ class ProcessServiceTest {
             // Assert
             assertThat(status).isNull();
         }
+
+        @Test
+        @DisplayName("Should return archived data for a process moved out of history")
+        void getProcessStatus_archivedProcess_shouldReturnArchivedData() {
+            // Arrange
+            String processInstanceId = "proc-archived";
+
+            ProcessInstanceQuery processQuery = mock(ProcessInstanceQuery.class);
+            when(runtimeService.createProcessInstanceQuery()).thenReturn(processQuery);
+            when(processQuery.processInstanceId(processInstanceId)).thenReturn(processQuery);
+            when(processQuery.singleResult()).thenReturn(null);
+
+            HistoricProcessInstanceQuery historyQuery = mock(HistoricProcessInstanceQuery.class);
+            when(historyService.createHistoricProcessInstanceQuery()).thenReturn(historyQuery);
+            when(historyQuery.processInstanceId(processInstanceId)).thenReturn(historyQuery);
+            when(historyQuery.singleResult()).thenReturn(null);
+
+            Map<String, Object> record = new HashMap<>();
+            record.put("processInstanceId", processInstanceId);
+            record.put("businessKey", "ORDER-OLD");
+            when(historyArchive.findByProcessInstanceId(processInstanceId)).thenReturn(Optional.of(record));
+
+            // Act
+            Map<String, Object> status = processService.getProcessStatus(processInstanceId);
+
+            // Assert
+            assertThat(status).isNotNull();
+            assertThat(status.get("businessKey")).isEqualTo("ORDER-OLD");
+            assertThat(status.get("isEnded")).isEqualTo(true);
+            assertThat(status.get("isArchived")).isEqualTo(true);
+        }
+
+        @Test
+        @DisplayName("Should share one engine lookup between concurrent status reads")
+        @SuppressWarnings("unchecked")
+        void getProcessStatus_concurrentReads_shouldCollapseIntoOneLookup() throws Exception {
+            // Arrange
+            String processInstanceId = "proc-hot";
+            ProcessInstance activeInstance = mock(ProcessInstance.class);
+            ProcessInstanceQuery processQuery = mock(ProcessInstanceQuery.class);
+            CountDownLatch queryStarted = new CountDownLatch(1);
+            CountDownLatch releaseQuery = new CountDownLatch(1);
+
+            when(runtimeService.createProcessInstanceQuery()).thenReturn(processQuery);
+            when(processQuery.processInstanceId(processInstanceId)).thenReturn(processQuery);
+            when(processQuery.singleResult()).thenAnswer(invocation -> {
+                queryStarted.countDown();
+                releaseQuery.await(5, TimeUnit.SECONDS);
+                return activeInstance;
+            });
+            when(activeInstance.getId()).thenReturn(processInstanceId);
+            when(runtimeService.getVariables(processInstanceId)).thenReturn(new HashMap<>());
+
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                // Act
+                Future<Map<String, Object>> first =
+                        executor.submit(() -> processService.getProcessStatus(processInstanceId));
+                assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+                Future<Map<String, Object>> second =
+                        executor.submit(() -> processService.getProcessStatus(processInstanceId));
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (collapsedCalls("processStatus") == 0 && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+                releaseQuery.countDown();
+
+                // Assert
+                Map<String, Object> shared = first.get(5, TimeUnit.SECONDS);
+                assertThat(shared).isSameAs(second.get(5, TimeUnit.SECONDS));
+                assertThatThrownBy(() -> shared.put("isEnded", true))
+                        .isInstanceOf(UnsupportedOperationException.class);
+                assertThatThrownBy(() -> ((Map<String, Object>) shared.get("variables")).clear())
+                        .isInstanceOf(UnsupportedOperationException.class);
+                assertThat(collapsedCalls("processStatus")).isEqualTo(1L);
+                verify(runtimeService, times(1)).createProcessInstanceQuery();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private long collapsedCalls(String group) {
+            Map<String, Object> stats = (Map<String, Object>) requestCoalescer.getStats().get(group);
+            return stats == null ? 0 : (Long) stats.get("collapsed");
+        }
     }
 
     @Nested
@@ -359,11 +607,13 @@ class ProcessServiceTest {
                     .id(1L)
                     .processDefinitionKey("approval-process")
                     .businessKey("ORDER-CANCEL")
+                    .processInstanceId(processInstanceId)
                     .status(WorkflowInstance.Status.ACTIVE)
                     .startedBy("testuser")
                     .build();
 
-            when(workflowInstanceRepository.findAll()).thenReturn(List.of(tracked));
+            when(workflowInstanceRepository.findByProcessInstanceId(processInstanceId))
+                    .thenReturn(Optional.of(tracked));
             when(workflowInstanceRepository.save(any(WorkflowInstance.class)))
                     .thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -383,7 +633,7 @@ class ProcessServiceTest {
         @DisplayName("Should terminate process even when no tracking record exists")
         void terminateProcess_noTrackingRecord_shouldStillDeleteProcess() {
             // Arrange
-            when(workflowInstanceRepository.findAll()).thenReturn(List.of());
+            when(workflowInstanceRepository.findByProcessInstanceId("proc-orphan")).thenReturn(Optional.empty());
 
             // Act
             processService.terminateProcess("proc-orphan", "Cleanup");
@@ -392,6 +642,27 @@ class ProcessServiceTest {
             verify(runtimeService).deleteProcessInstance("proc-orphan", "Cleanup");
             verify(workflowInstanceRepository, never()).save(any());
         }
+
+        @Test
+        @DisplayName("Should leave a tracking record that is already completed untouched")
+        void terminateProcess_alreadyCompleted_shouldNotOverwrite() {
+            // Arrange
+            WorkflowInstance completed = WorkflowInstance.builder()
+                    .id(2L)
+                    .processDefinitionKey("approval-process")
+                    .processInstanceId("proc-done")
+                    .status(WorkflowInstance.Status.COMPLETED)
+                    .completedAt(LocalDateTime.of(2024, 1, 15, 10, 0))
+                    .build();
+            when(workflowInstanceRepository.findByProcessInstanceId("proc-done")).thenReturn(Optional.of(completed));
+
+            // Act
+            processService.terminateProcess("proc-done", "Cleanup");
+
+            // Assert
+            verify(workflowInstanceRepository, never()).save(any());
+            verify(workflowInstanceRepository, never()).findAll();
+        }
     }
 
     @Nested
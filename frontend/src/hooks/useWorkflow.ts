@@ -1,8 +1,9 @@
-import { useState, useEffect, useCallback } from 'react';
+import { useState, useEffect, useCallback, useRef } from 'react';
 import {
   ProcessDefinition,
   ProcessInstance,
   UserTask,
+  TaskChanges,
   ProcessStartRequest,
   TaskCompleteRequest,
 } from '../types/workflow';
@@ -25,6 +26,15 @@ interface UseWorkflowReturn {
   refreshTasks: () => Promise<void>;
 }
 
+// Merges a delta from /tasks/changes into the current inbox
+const applyTaskChanges = (current: UserTask[], changes: TaskChanges): UserTask[] => {
+  if (changes.reset) {
+    return changes.tasks;
+  }
+  const changedIds = new Set([...changes.removed, ...changes.tasks.map((task) => task.id)]);
+  return [...changes.tasks, ...current.filter((task) => !changedIds.has(task.id))];
+};
+
 export const useWorkflow = (): UseWorkflowReturn => {
   const [processes, setProcesses] = useState<ProcessDefinition[]>([]);
   const [tasks, setTasks] = useState<UserTask[]>([]);
@@ -32,6 +42,8 @@ export const useWorkflow = (): UseWorkflowReturn => {
   const [selectedProcess, setSelectedProcess] = useState<ProcessDefinition | null>(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
+  // Last change cursor seen; none makes the server send the full inbox
+  const taskSeq = useRef<string>();
 
   // Initial load
   useEffect(() => {
@@ -39,12 +51,13 @@ export const useWorkflow = (): UseWorkflowReturn => {
       try {
         setLoading(true);
         setError(null);
-        const [processData, taskData] = await Promise.all([
+        const [processData, taskChanges] = await Promise.all([
           processesApi.getAll(),
-          tasksApi.getUserTasks(),
+          tasksApi.getChanges(),
         ]);
         setProcesses(processData);
-        setTasks(taskData);
+        taskSeq.current = taskChanges.seq;
+        setTasks(taskChanges.tasks);
       } catch (err) {
         console.error('Failed to load workflow data:', err);
         setError('Failed to load workflow data. Please try again.');
@@ -89,8 +102,9 @@ export const useWorkflow = (): UseWorkflowReturn => {
 
   const refreshTasks = useCallback(async () => {
     try {
-      const data = await tasksApi.getUserTasks();
-      setTasks(data);
+      const changes = await tasksApi.getChanges(taskSeq.current);
+      taskSeq.current = changes.seq;
+      setTasks((current) => applyTaskChanges(current, changes));
     } catch (err) {
       console.error('Failed to refresh tasks:', err);
     }
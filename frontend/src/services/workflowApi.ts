@@ -3,6 +3,7 @@ import {
   ProcessDefinition,
   ProcessInstance,
   UserTask,
+  TaskChanges,
   ProcessStartRequest,
   TaskCompleteRequest,
   DeploymentResult,
@@ -58,6 +59,11 @@ export const tasksApi = {
     return response.data;
   },
 
+  getChanges: async (since?: string): Promise<TaskChanges> => {
+    const response = await api.get<TaskChanges>('/tasks/changes', { params: { since } });
+    return response.data;
+  },
+
   getTask: async (id: string): Promise<UserTask> => {
     const response = await api.get<UserTask>(`/tasks/${id}`);
     return response.data;
@@ -37,6 +37,14 @@ export interface UserTask {
   variables?: Record<string, unknown>;
 }
 
+export interface TaskChanges {
+  // Opaque cursor; pass it back unchanged as `since`
+  seq: string;
+  reset: boolean;
+  tasks: UserTask[];
+  removed: string[];
+}
+
 export interface TaskAction {
   taskId: string;
   action: 'COMPLETE' | 'CLAIM' | 'DELEGATE';
@@ -0,0 +1,139 @@
+package com.service;
+
+import com.config.AppConstants159;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link BoundedCache} with the legacy {@link CacheService164} under a skewed
+ * (Zipf) read-through workload from several threads. The auxiliary counters report hits and
+ * misses, so hit rate can be compared alongside throughput and, with {@code -prof gc},
+ * allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@SuppressWarnings("deprecation")
+public class CacheBenchmark {
+
+    private static final int KEY_SPACE = 1 << 16;
+    private static final int SAMPLES = 1 << 20;
+    private static final int SAMPLE_MASK = SAMPLES - 1;
+
+    @Param({"bounded", "cacheService164"})
+    public String implementation;
+
+    @Param({"1000"})
+    public int maximumSize;
+
+    private String[] keys;
+    private Cache cache;
+    private BoundedCache<String, Object> bounded;
+
+    interface Cache {
+        Object get(String key);
+
+        void put(String key, Object value);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long hits;
+        public long misses;
+        private int index = ThreadLocalRandom.current().nextInt(SAMPLES);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = zipfKeys(new Random(42), KEY_SPACE, SAMPLES, 1.0);
+        if ("bounded".equals(implementation)) {
+            bounded = new BoundedCache<>(maximumSize,
+                    TimeUnit.SECONDS.toMillis(AppConstants159.CACHE_TTL_SECONDS));
+            cache = new Cache() {
+                @Override
+                public Object get(String key) {
+                    return bounded.get(key);
+                }
+
+                @Override
+                public void put(String key, Object value) {
+                    bounded.put(key, value);
+                }
+            };
+        } else {
+            CacheService164 legacy = new CacheService164(
+                    TimeUnit.SECONDS.toMillis(AppConstants159.CACHE_TTL_SECONDS));
+            cache = new Cache() {
+                @Override
+                public Object get(String key) {
+                    return legacy.get(key);
+                }
+
+                @Override
+                public void put(String key, Object value) {
+                    legacy.put(key, value);
+                }
+            };
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (bounded != null) {
+            bounded.close();
+        }
+    }
+
+    @Benchmark
+    public Object readThrough(Counters counters) {
+        String key = keys[counters.index++ & SAMPLE_MASK];
+        Object value = cache.get(key);
+        if (value == null) {
+            counters.misses++;
+            cache.put(key, key);
+            return key;
+        }
+        counters.hits++;
+        return value;
+    }
+
+    private static String[] zipfKeys(Random random, int keySpace, int samples, double exponent) {
+        double[] cdf = new double[keySpace];
+        double sum = 0;
+        for (int i = 0; i < keySpace; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+
+        String[] keys = new String[samples];
+        for (int i = 0; i < samples; i++) {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            keys[i] = "key-" + (rank >= 0 ? rank : -rank - 1);
+        }
+        return keys;
+    }
+
+}
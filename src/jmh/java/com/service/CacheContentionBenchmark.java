@@ -0,0 +1,117 @@
+package com.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Get and put on a small set of hot keys from six readers and two writers at once, for each
+ * cache implementation. Unlike {@link CacheBenchmark} this measures lock contention rather than
+ * hit rate: every key fits in the cache.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@SuppressWarnings("deprecation")
+public class CacheContentionBenchmark {
+
+    private static final int KEYS = 256;
+
+    @Param({"bounded", "cacheService164", "cacheService1062", "cacheService1063"})
+    public String implementation;
+
+    private String[] keys;
+    private CacheBenchmark.Cache cache;
+    private BoundedCache<String, Object> bounded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key-" + i;
+        }
+
+        long ttlMs = TimeUnit.MINUTES.toMillis(5);
+        switch (implementation) {
+            case "bounded":
+                bounded = new BoundedCache<>(KEYS * 4, ttlMs);
+                cache = adapter(bounded::get, bounded::put);
+                break;
+            case "cacheService164":
+                CacheService164 cache164 = new CacheService164(ttlMs);
+                cache = adapter(cache164::get, cache164::put);
+                break;
+            case "cacheService1062":
+                CacheService1062 cache1062 = new CacheService1062(ttlMs);
+                cache = adapter(cache1062::get, cache1062::put);
+                break;
+            case "cacheService1063":
+                CacheService1063 cache1063 = new CacheService1063(ttlMs);
+                cache = adapter(cache1063::get, cache1063::put);
+                break;
+            default:
+                throw new IllegalArgumentException(implementation);
+        }
+
+        for (String key : keys) {
+            cache.put(key, key);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (bounded != null) {
+            bounded.close();
+        }
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(6)
+    public Object get() {
+        return cache.get(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(2)
+    public void put() {
+        String key = keys[ThreadLocalRandom.current().nextInt(KEYS)];
+        cache.put(key, key);
+    }
+
+    private static CacheBenchmark.Cache adapter(Function<String, Object> get, BiConsumer<String, Object> put) {
+        return new CacheBenchmark.Cache() {
+            @Override
+            public Object get(String key) {
+                return get.apply(key);
+            }
+
+            @Override
+            public void put(String key, Object value) {
+                put.accept(key, value);
+            }
+        };
+    }
+
+}
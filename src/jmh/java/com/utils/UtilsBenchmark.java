@@ -0,0 +1,86 @@
+package com.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The string, date and validation helpers. The numbered copies of each class share one
+ * implementation, so one copy of each is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+
+    public String text = "  review the purchase request  ";
+    public String longText = "Review the purchase request for the new laptops and approve or reject it";
+    public String digits = "4711081500";
+    public String email = "jane.doe@company.com";
+    public String phone = "+84901234567";
+    public LocalDateTime start = LocalDateTime.of(2024, 1, 15, 9, 30);
+    public LocalDateTime end = LocalDateTime.of(2024, 3, 1, 17, 0);
+
+    @Benchmark
+    public boolean stringIsEmpty() {
+        return StringUtils161.isEmpty(text);
+    }
+
+    @Benchmark
+    public String stringCapitalize() {
+        return StringUtils161.capitalize(longText);
+    }
+
+    @Benchmark
+    public String stringTruncate() {
+        return StringUtils161.truncate(longText, 20);
+    }
+
+    @Benchmark
+    public String stringRemoveWhitespace() {
+        return StringUtils161.removeWhitespace(longText);
+    }
+
+    @Benchmark
+    public boolean stringIsNumeric() {
+        return StringUtils161.isNumeric(digits);
+    }
+
+    @Benchmark
+    public String dateFormat() {
+        return DateUtils166.format(start);
+    }
+
+    @Benchmark
+    public long dateDaysBetween() {
+        return DateUtils166.daysBetween(start, end);
+    }
+
+    @Benchmark
+    public boolean validateEmail() {
+        return ValidationUtils168.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean validatePhone() {
+        return ValidationUtils168.isValidPhone(phone);
+    }
+
+    @Benchmark
+    public boolean validateLength() {
+        return ValidationUtils168.isValidLength(longText, 10, 200);
+    }
+
+}
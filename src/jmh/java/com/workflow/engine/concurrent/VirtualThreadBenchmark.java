@@ -0,0 +1,139 @@
+package com.workflow.engine.concurrent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Request throughput with 200 platform threads (Tomcat's default) against a virtual thread per
+ * request, when every request spends {@code ioMillis} waiting outside the database and
+ * {@code dbMillis} holding one of {@code poolSize} connections. Connections are handed out by a
+ * bounded queue like the Hikari pool.
+ *
+ * <p>Platform threads cap throughput at 200 / (io + db) regardless of the pool; virtual threads
+ * are capped by the pool alone. With {@code driverLock=monitor} each connection is guarded by
+ * {@code synchronized}, as in pgjdbc before 42.6: a virtual thread blocking inside it pins its
+ * carrier, so throughput falls to carriers / db. Run with {@code -Djdk.tracePinnedThreads=short}
+ * to see the pinned stacks. The virtual variants need a Java 21 runtime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int REQUESTS = 2_000;
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"10", "50"})
+    public int poolSize;
+
+    @Param({"lock", "monitor"})
+    public String driverLock;
+
+    @Param({"20"})
+    public int ioMillis;
+
+    @Param({"1"})
+    public int dbMillis;
+
+    private ExecutorService executor;
+    private BlockingQueue<Connection> pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("virtual".equals(threads)) {
+            executor = VirtualThreads.newThreadPerTaskExecutor("bench-vt-");
+        } else {
+            executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        }
+        pool = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            pool.add(new Connection());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void requests() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        boolean monitor = "monitor".equals(driverLock);
+        for (int i = 0; i < REQUESTS; i++) {
+            executor.execute(() -> {
+                try {
+                    handle(monitor);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void handle(boolean monitor) throws InterruptedException {
+        // Blocking I/O that does not need a connection, e.g. a mail server or another service
+        Thread.sleep(ioMillis);
+
+        Connection connection = pool.take();
+        try {
+            if (monitor) {
+                connection.querySynchronized(dbMillis);
+            } else {
+                connection.query(dbMillis);
+            }
+        } finally {
+            pool.add(connection);
+        }
+    }
+
+    private static final class Connection {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        void query(int millis) throws InterruptedException {
+            lock.lock();
+            try {
+                Thread.sleep(millis);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        synchronized void querySynchronized(int millis) throws InterruptedException {
+            Thread.sleep(millis);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.workflow.engine.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the controller payloads (task inbox, instance list with variables,
+ * process status), with an {@link ObjectMapper} configured like Spring Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadSerializationBenchmark {
+
+    @Param({"50"})
+    public int rows;
+
+    private ObjectMapper objectMapper;
+    private List<Map<String, Object>> tasks;
+    private List<Map<String, Object>> instances;
+    private Map<String, Object> status;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        tasks = new ArrayList<>();
+        instances = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> task = new HashMap<>();
+            task.put("id", "task-" + i);
+            task.put("name", "Review Request");
+            task.put("description", "Review the purchase request and approve or reject it");
+            task.put("assignee", i % 2 == 0 ? "jane.doe" : null);
+            task.put("processInstanceId", "proc-" + i);
+            task.put("processDefinitionId", "approval:3:def-7");
+            task.put("createTime", new Date());
+            task.put("dueDate", new Date());
+            task.put("priority", 50);
+            task.put("isClaimed", i % 2 == 0);
+            tasks.add(task);
+
+            Map<String, Object> instance = new HashMap<>();
+            instance.put("id", "proc-" + i);
+            instance.put("processDefinitionId", "approval:3:def-7");
+            instance.put("businessKey", "ORDER-" + i);
+            instance.put("isSuspended", false);
+            instance.put("variables", variables(i));
+            instances.add(instance);
+        }
+
+        status = new HashMap<>();
+        status.put("processInstanceId", "proc-1");
+        status.put("processDefinitionId", "approval:3:def-7");
+        status.put("businessKey", "ORDER-1");
+        status.put("isSuspended", false);
+        status.put("isEnded", false);
+        status.put("variables", variables(1));
+    }
+
+    @Benchmark
+    public byte[] taskInbox() throws Exception {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] activeInstances() throws Exception {
+        return objectMapper.writeValueAsBytes(instances);
+    }
+
+    @Benchmark
+    public byte[] processStatus() throws Exception {
+        return objectMapper.writeValueAsBytes(status);
+    }
+
+    private static Map<String, Object> variables(int i) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("amount", 1000 + i);
+        variables.put("approver", "manager@company.com");
+        variables.put("approved", i % 3 != 0);
+        variables.put("comment", "Needed for the Q3 hardware refresh");
+        return variables;
+    }
+
+}
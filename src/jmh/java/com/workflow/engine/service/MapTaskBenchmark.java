@@ -0,0 +1,91 @@
+package com.workflow.engine.service;
+
+import com.workflow.engine.dto.FieldSet;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.task.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code TaskService.mapTask}, which runs once per task on every inbox request, for the
+ * full field set and a sparse one. The method is private and reached through a constant
+ * {@link MethodHandle}, which the JIT inlines like a direct call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapTaskBenchmark {
+
+    private static final MethodHandle MAP_TASK;
+
+    static {
+        try {
+            MAP_TASK = MethodHandles.privateLookupIn(TaskService.class, MethodHandles.lookup())
+                    .findVirtual(TaskService.class, "mapTask",
+                            MethodType.methodType(Map.class, Task.class, boolean.class, FieldSet.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private TaskService taskService;
+    private Task task;
+    private FieldSet sparse;
+
+    @Setup
+    public void setUp() {
+        // mapTask uses none of the collaborators
+        taskService = new TaskService(null, null, null, null, null, null);
+
+        TaskEntity entity = new TaskEntity();
+        entity.setId("task-42");
+        entity.setNameWithoutCascade("Review Request");
+        entity.setDescriptionWithoutCascade("Review the purchase request and approve or reject it");
+        entity.setAssigneeWithoutCascade("jane.doe");
+        entity.setProcessInstanceId("proc-1001");
+        entity.setProcessDefinitionId("approval:3:def-7");
+        entity.setCreateTime(new Date());
+        entity.setDueDateWithoutCascade(new Date());
+        entity.setPriorityWithoutCascade(50);
+        task = entity;
+
+        sparse = FieldSet.parse("id,name,dueDate", TaskService.TASK_FIELDS);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> allFields() throws Throwable {
+        return (Map<String, Object>) MAP_TASK.invokeExact(taskService, task, true, FieldSet.ALL);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> sparseFields() throws Throwable {
+        return (Map<String, Object>) MAP_TASK.invokeExact(taskService, task, true, sparse);
+    }
+
+    @Benchmark
+    public Set<String> parseFields() {
+        return FieldSet.parse("id,name,dueDate", TaskService.TASK_FIELDS).getVariableNames();
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.workflow.engine.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes 100k instance-like rows either as one {@code List<Map>} (the regular endpoints) or
+ * page by page through {@link JsonRowStreamer} (the {@code stream=true} endpoints). Rows are
+ * generated per page as an engine query would return them, and written to a discarding stream.
+ *
+ * <p>Run with {@code -prof gc} for allocation per operation. The {@code peakHeapMb} counter is
+ * the peak heap usage during the operation after a GC beforehand; it includes garbage not yet
+ * collected, so compare it between modes rather than reading it as live data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JsonStreamingBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"500"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private JsonRowStreamer streamer;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Memory {
+        public long peakHeapMb;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        streamer = new JsonRowStreamer(objectMapper, pageSize);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetPeak() {
+        System.gc();
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @Benchmark
+    public long fullList(Memory memory) throws IOException {
+        List<Map<String, Object>> all = new ArrayList<>(rows);
+        for (int first = 0; first < rows; first += pageSize) {
+            all.addAll(page(first, pageSize));
+        }
+        CountingOutputStream out = new CountingOutputStream();
+        objectMapper.writeValue(out, all);
+        memory.peakHeapMb = peakHeapMb();
+        return out.count;
+    }
+
+    @Benchmark
+    public long streamed(Memory memory) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        streamer.write(this::page, out);
+        memory.peakHeapMb = peakHeapMb();
+        return out.count;
+    }
+
+    private List<Map<String, Object>> page(int firstResult, int maxResults) {
+        int end = Math.min(rows, firstResult + maxResults);
+        List<Map<String, Object>> page = new ArrayList<>(Math.max(0, end - firstResult));
+        for (int i = firstResult; i < end; i++) {
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("amount", i * 10);
+            variables.put("approver", "manager-" + (i % 50) + "@company.com");
+            variables.put("comment", "Request " + i + " awaiting approval");
+
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", "instance-" + i);
+            row.put("processDefinitionId", "approval:3:def-" + (i % 7));
+            row.put("businessKey", "ORDER-" + i);
+            row.put("isSuspended", false);
+            row.put("startTime", new Date(1_700_000_000_000L + i * 1000L));
+            row.put("variables", variables);
+            page.add(row);
+        }
+        return page;
+    }
+
+    private static long peakHeapMb() {
+        return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() >> 20;
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+}
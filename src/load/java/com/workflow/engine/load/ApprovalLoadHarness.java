@@ -0,0 +1,239 @@
+package com.workflow.engine.load;
+
+import com.workflow.engine.WorkflowEngineApplication;
+import com.workflow.engine.service.ProcessService;
+import com.workflow.engine.service.TaskService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives {@code approval-process} end to end inside a running application: start, find the
+ * review task, claim, complete with {@code approved} true or false. Completing the task runs the
+ * approval and notification delegates in the same transaction, so their cost is part of the
+ * complete step.
+ *
+ * <p>Reports throughput, p50/p99/p999 latency per step and JDBC statements per instance.
+ * Statements are counted on all threads, so asynchronous work caused by the instances (such as
+ * the completion tracking flush) is included; idle background polling is included too, which
+ * matters little for runs of a few thousand instances.
+ *
+ * <p>Options, as {@code --name=value}:
+ * <ul>
+ *   <li>{@code load.db}: {@code h2} (default, in-memory) or {@code postgres}, which uses the
+ *   datasource from {@code application.properties}</li>
+ *   <li>{@code load.instances}: measured instances, default 2000</li>
+ *   <li>{@code load.warmup}: instances run before measuring, default 200</li>
+ *   <li>{@code load.concurrency}: worker threads, default 16</li>
+ *   <li>{@code load.reviewers}: distinct users claiming tasks, default 50</li>
+ *   <li>{@code load.approved-ratio}: share of tasks completed with {@code approved=true},
+ *   default 0.5</li>
+ * </ul>
+ */
+public class ApprovalLoadHarness {
+
+    private static final String PROCESS_KEY = "approval-process";
+
+    private final ProcessService processService;
+    private final TaskService taskService;
+    private final org.camunda.bpm.engine.TaskService camundaTaskService;
+    private final RuntimeService runtimeService;
+    private final StatementCounter statementCounter;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final int concurrency;
+    private final int reviewers;
+    private final double approvedRatio;
+
+    ApprovalLoadHarness(ConfigurableApplicationContext context) {
+        Environment env = context.getEnvironment();
+        this.processService = context.getBean(ProcessService.class);
+        this.taskService = context.getBean(TaskService.class);
+        this.camundaTaskService = context.getBean(org.camunda.bpm.engine.TaskService.class);
+        this.runtimeService = context.getBean(RuntimeService.class);
+        this.statementCounter = context.getBean(StatementCounter.class);
+        this.concurrency = env.getProperty("load.concurrency", Integer.class, 16);
+        this.reviewers = env.getProperty("load.reviewers", Integer.class, 50);
+        this.approvedRatio = env.getProperty("load.approved-ratio", Double.class, 0.5);
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean postgres = Arrays.asList(args).contains("--load.db=postgres");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(WorkflowEngineApplication.class)
+                .profiles(postgres ? new String[]{"load"} : new String[]{"load", "load-h2"})
+                .run(args);
+
+        long failures;
+        try {
+            Environment env = context.getEnvironment();
+            ApprovalLoadHarness harness = new ApprovalLoadHarness(context);
+            int warmup = env.getProperty("load.warmup", Integer.class, 200);
+            int instances = env.getProperty("load.instances", Integer.class, 2000);
+            long settleMs = 2 * env.getProperty("app.history.completion.flush-interval-ms", Long.class, 1000L);
+
+            harness.run(warmup, new Steps(warmup));
+            harness.statementCounter.reset();
+
+            Steps steps = new Steps(instances);
+            long elapsed = harness.run(instances, steps);
+            // Let the completion tracking flush the measured instances before reading the counters
+            Thread.sleep(settleMs);
+            harness.report(instances, elapsed, steps, postgres ? "postgres" : "h2");
+            failures = steps.failures() + harness.countUnfinished();
+        } finally {
+            context.close();
+        }
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    /**
+     * Runs the given number of instances on the worker threads.
+     * @return the elapsed time in nanoseconds
+     */
+    long run(int instances, Steps steps) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                int n;
+                while ((n = next.getAndIncrement()) < instances) {
+                    runInstance(n, steps);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.DAYS);
+        return System.nanoTime() - started;
+    }
+
+    private void runInstance(int n, Steps steps) {
+        String reviewer = "reviewer-" + (n % reviewers);
+        boolean approved = ThreadLocalRandom.current().nextDouble() < approvedRatio;
+        long started = System.nanoTime();
+
+        Map<String, Object> variables = new HashMap<>();
+        // No reviewer up front: the task goes to the reviewers group and has to be claimed
+        variables.put("reviewer", null);
+        variables.put("requester", "requester-" + n);
+        variables.put("amount", 100 + n % 10000);
+
+        ProcessInstance instance = timed(steps.start,
+                () -> processService.startProcess(PROCESS_KEY, runId + "-" + n, variables));
+        if (instance == null) {
+            return;
+        }
+
+        Task task = timed(steps.findTask, () -> camundaTaskService.createTaskQuery()
+                .processInstanceId(instance.getId())
+                .singleResult());
+        if (task == null) {
+            return;
+        }
+
+        if (timed(steps.claim, () -> {
+            taskService.claimTask(task.getId(), reviewer);
+            return Boolean.TRUE;
+        }) == null) {
+            return;
+        }
+
+        Map<String, Object> decision = new HashMap<>();
+        decision.put("approved", approved);
+        decision.put("approver", reviewer);
+        decision.put("approvalComment", approved ? "Within budget" : "Needs a second quote");
+        if (timed(steps.complete, () -> {
+            taskService.completeTask(task.getId(), reviewer, decision, null);
+            return Boolean.TRUE;
+        }) == null) {
+            return;
+        }
+
+        steps.instance.record(System.nanoTime() - started);
+    }
+
+    private static <T> T timed(StepTimings timings, Callable<T> step) {
+        long started = System.nanoTime();
+        try {
+            T result = step.call();
+            if (result == null) {
+                timings.failed();
+            } else {
+                timings.record(System.nanoTime() - started);
+            }
+            return result;
+        } catch (Exception e) {
+            timings.failed();
+            if (timings.getFailures() <= 3) {
+                e.printStackTrace();
+            }
+            return null;
+        }
+    }
+
+    private long countUnfinished() {
+        return runtimeService.createProcessInstanceQuery()
+                .processDefinitionKey(PROCESS_KEY)
+                .processInstanceBusinessKeyLike(runId + "-%")
+                .count();
+    }
+
+    private void report(int instances, long elapsedNanos, Steps steps, String db) {
+        double seconds = elapsedNanos / 1e9;
+        int completed = steps.instance.getCount();
+
+        System.out.printf("%nApproval process load: %d instances, %d threads, %s%n", instances, concurrency, db);
+        System.out.printf("Throughput: %.1f instances/s (%d completed in %.1f s)%n",
+                completed / seconds, completed, seconds);
+        System.out.printf("%-10s %8s %6s %10s %10s %10s %10s%n",
+                "step", "count", "failed", "p50 (us)", "p99 (us)", "p999 (us)", "max (us)");
+        for (StepTimings step : steps.all()) {
+            System.out.printf("%-10s %8d %6d %10d %10d %10d %10d%n",
+                    step.getName(), step.getCount(), step.getFailures(),
+                    step.percentileMicros(50), step.percentileMicros(99), step.percentileMicros(99.9),
+                    step.maxMicros());
+        }
+        System.out.printf("DB statements per instance: %.1f (round trips %.1f)%n",
+                (double) statementCounter.getStatements() / Math.max(completed, 1),
+                (double) statementCounter.getRoundTrips() / Math.max(completed, 1));
+    }
+
+    static class Steps {
+        final StepTimings start;
+        final StepTimings findTask;
+        final StepTimings claim;
+        final StepTimings complete;
+        final StepTimings instance;
+
+        Steps(int capacity) {
+            start = new StepTimings("start", capacity);
+            findTask = new StepTimings("findTask", capacity);
+            claim = new StepTimings("claim", capacity);
+            complete = new StepTimings("complete", capacity);
+            instance = new StepTimings("instance", capacity);
+        }
+
+        List<StepTimings> all() {
+            return List.of(start, findTask, claim, complete, instance);
+        }
+
+        long failures() {
+            return all().stream().mapToLong(StepTimings::getFailures).sum();
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.workflow.engine.load;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("load")
+public class LoadHarnessConfiguration {
+
+    // Static so the data source is wrapped before anything else asks for it
+    @Bean
+    static StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+}
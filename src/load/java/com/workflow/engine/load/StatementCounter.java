@@ -0,0 +1,94 @@
+package com.workflow.engine.load;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps the data source so every JDBC statement is counted, whether it comes from the engine
+ * (MyBatis) or from JPA. Rows added to a batch count as statements, and each execute call as one
+ * round trip, so batched history inserts show up in both numbers differently.
+ */
+class StatementCounter implements BeanPostProcessor {
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder roundTrips = new LongAdder();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, bean, (target, method, args) -> {
+                Object result = invoke(target, method, args);
+                return result instanceof Connection ? proxy(Connection.class, result, this::onConnection) : result;
+            });
+        }
+        return bean;
+    }
+
+    long getStatements() {
+        return statements.sum();
+    }
+
+    long getRoundTrips() {
+        return roundTrips.sum();
+    }
+
+    void reset() {
+        statements.reset();
+        roundTrips.reset();
+    }
+
+    private Object onConnection(Object target, Method method, Object[] args) throws Throwable {
+        Object result = invoke(target, method, args);
+        if (result instanceof Statement) {
+            Class<?> type = method.getReturnType();
+            return proxy(type, result, this::onStatement);
+        }
+        return result;
+    }
+
+    private Object onStatement(Object target, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.equals("addBatch")) {
+            statements.increment();
+        } else if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+            roundTrips.increment();
+        } else if (name.startsWith("execute")) {
+            statements.increment();
+            roundTrips.increment();
+        }
+        return invoke(target, method, args);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object proxy(Class<?> type, Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            // unwrap/isWrapperFor must see the real object, or pools and drivers get confused
+            if (method.getName().equals("unwrap") || method.getName().equals("isWrapperFor")) {
+                return invoke(target, method, args);
+            }
+            return handler.handle(target, method, args);
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+}
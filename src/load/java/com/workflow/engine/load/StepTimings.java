@@ -0,0 +1,70 @@
+package com.workflow.engine.load;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies of one step of the harness. Every sample is kept, so percentiles are exact; a run
+ * records at most one sample per instance and step.
+ */
+class StepTimings {
+
+    private final String name;
+    private final long[] samples;
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong failures = new AtomicLong();
+
+    StepTimings(String name, int capacity) {
+        this.name = name;
+        this.samples = new long[capacity];
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void record(long nanos) {
+        int index = count.getAndIncrement();
+        if (index < samples.length) {
+            samples[index] = nanos;
+        }
+    }
+
+    void failed() {
+        failures.incrementAndGet();
+    }
+
+    long getFailures() {
+        return failures.get();
+    }
+
+    int getCount() {
+        return Math.min(count.get(), samples.length);
+    }
+
+    /**
+     * Returns the latency at the given percentile in microseconds, by the nearest-rank method.
+     * @param percentile between 0 and 100
+     */
+    long percentileMicros(double percentile) {
+        long[] sorted = sorted();
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1000;
+    }
+
+    long maxMicros() {
+        long[] sorted = sorted();
+        return sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000;
+    }
+
+    private long[] sorted() {
+        long[] sorted = Arrays.copyOf(samples, getCount());
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+}
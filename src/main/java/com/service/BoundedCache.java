@@ -0,0 +1,613 @@
+package com.service;
+
+import com.config.AppConstants159;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache with TTL support.
+ * Replaces the unbounded {@code CacheService} copies.
+ *
+ * <p>Entries are bounded by total weight (one per entry unless a weigher is given) and
+ * evicted with a W-TinyLFU policy: new entries enter a small LRU window, and an entry
+ * leaving the window only displaces the probation victim if a frequency sketch says it is
+ * used more often. Expired entries are removed proactively by a timer wheel, not only when
+ * read again. Reads never block; access order is recorded only when the policy lock is free.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public class BoundedCache<K, V> implements AutoCloseable {
+
+    /**
+     * Computes the weight of an entry; weights must be positive.
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+    private static final int WHEEL_BUCKETS = 256;
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final ScheduledExecutorService EXPIRY_SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "bounded-cache-expiry");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final long maximumWeight;
+    private final long defaultTtlNanos;
+    private final Weigher<K, V> weigher;
+    private final FrequencySketch sketch;
+
+    // Policy state, guarded by evictionLock
+    private final Node<K, V> window = Node.sentinel();
+    private final Node<K, V> probation = Node.sentinel();
+    private final Node<K, V> protectedRegion = Node.sentinel();
+    private final Node<K, V>[] wheel;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private long windowWeight;
+    private long protectedWeight;
+    private long weightedSize;
+    private long currentTick;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    private final ScheduledFuture<?> expiryTask;
+
+    /**
+     * Creates a cache bounded by {@link AppConstants159#CACHE_MAX_SIZE} entries with
+     * {@link AppConstants159#CACHE_TTL_SECONDS} time to live.
+     */
+    public BoundedCache() {
+        this(AppConstants159.CACHE_MAX_SIZE, TimeUnit.SECONDS.toMillis(AppConstants159.CACHE_TTL_SECONDS));
+    }
+
+    /**
+     * Creates a cache bounded by entry count.
+     * @param maximumSize the maximum number of entries
+     * @param defaultTtlMs time to live of entries, or 0 for no expiry
+     */
+    public BoundedCache(long maximumSize, long defaultTtlMs) {
+        this(maximumSize, defaultTtlMs, (key, value) -> 1);
+    }
+
+    /**
+     * Creates a cache bounded by total weight.
+     * @param maximumWeight the maximum total weight of all entries
+     * @param defaultTtlMs time to live of entries, or 0 for no expiry
+     * @param weigher computes the weight of each entry
+     */
+    public BoundedCache(long maximumWeight, long defaultTtlMs, Weigher<K, V> weigher) {
+        this(maximumWeight, maximumWeight, defaultTtlMs, weigher);
+    }
+
+    /**
+     * Creates a cache bounded by total weight, sizing the frequency sketch for the expected
+     * number of entries. Use this when weights are large (e.g. bytes), since the sketch would
+     * otherwise be sized by the maximum weight.
+     * @param maximumWeight the maximum total weight of all entries
+     * @param expectedEntries the expected number of entries when the cache is full
+     * @param defaultTtlMs time to live of entries, or 0 for no expiry
+     * @param weigher computes the weight of each entry
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedCache(long maximumWeight, long expectedEntries, long defaultTtlMs, Weigher<K, V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be positive");
+        }
+        this.maximumWeight = maximumWeight;
+        this.defaultTtlNanos = defaultTtlMs > 0 ? TimeUnit.MILLISECONDS.toNanos(defaultTtlMs) : 0;
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(Math.min(maximumWeight, Math.max(1, expectedEntries)));
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * 0.8);
+
+        this.wheel = new Node[WHEEL_BUCKETS];
+        for (int i = 0; i < WHEEL_BUCKETS; i++) {
+            wheel[i] = Node.sentinel();
+        }
+        this.currentTick = System.nanoTime() / TICK_NANOS;
+        ExpiryTask task = new ExpiryTask(this);
+        this.expiryTask = EXPIRY_SCHEDULER.scheduleWithFixedDelay(
+                task, TICK_NANOS, TICK_NANOS, TimeUnit.NANOSECONDS);
+        task.future = expiryTask;
+    }
+
+    /**
+     * Puts a value into the cache with the default time to live.
+     * @param key the cache key
+     * @param value the value to cache
+     */
+    public void put(K key, V value) {
+        putWithTtl(key, value, defaultTtlNanos);
+    }
+
+    /**
+     * Puts a value into the cache with its own time to live.
+     * @param key the cache key
+     * @param value the value to cache
+     * @param ttlMs time to live, or 0 for no expiry
+     */
+    public void put(K key, V value, long ttlMs) {
+        putWithTtl(key, value, ttlMs > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMs) : 0);
+    }
+
+    /**
+     * Gets a value from the cache.
+     * @param key the cache key
+     * @return the cached value, or null if not found or expired
+     */
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        long now = System.nanoTime();
+        if (node == null || node.isExpired(now)) {
+            misses.increment();
+            if (node != null) {
+                expire(node);
+            }
+            return null;
+        }
+        hits.increment();
+        recordAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Gets a value, loading it on a miss. Concurrent callers for the same key share one load.
+     * @param key the cache key
+     * @param loader computes the value; a null result is returned but not cached
+     * @return the cached or loaded value
+     */
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+
+        try {
+            // Another caller may have finished loading between our miss and putIfAbsent
+            Node<K, V> node = data.get(key);
+            value = node != null && !node.isExpired(System.nanoTime()) ? node.value : null;
+            if (value == null) {
+                value = loader.apply(key);
+                loadSuccesses.increment();
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Removes a value from the cache.
+     * @param key the cache key
+     */
+    public void remove(K key) {
+        evictionLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Clears all entries from the cache.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    unlink(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     * @return cache size
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Returns a snapshot of the keys currently in the cache.
+     * @return unmodifiable set of keys
+     */
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(new HashSet<>(data.keySet()));
+    }
+
+    /**
+     * Returns the total weight of all entries.
+     * @return weighted size
+     */
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss, load and eviction counters.
+     * @return cache statistics
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(),
+                evictions.sum(), expirations.sum());
+    }
+
+    /**
+     * Removes expired entries. Runs every second on a shared scheduler until the cache is closed
+     * or no longer referenced.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            advanceWheel(System.nanoTime());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Stops proactive expiry for this cache.
+     */
+    @Override
+    public void close() {
+        expiryTask.cancel(false);
+    }
+
+    private void putWithTtl(K key, V value, long ttlNanos) {
+        if (key == null || value == null) {
+            throw new NullPointerException("Cache keys and values must not be null");
+        }
+        int weight = weigher.weigh(key, value);
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Entry weight must be positive: " + weight);
+        }
+
+        Node<K, V> node = new Node<>(key, value, weight,
+                ttlNanos > 0 ? System.nanoTime() + ttlNanos : NO_EXPIRY);
+
+        evictionLock.lock();
+        try {
+            Node<K, V> previous = data.put(key, node);
+            if (previous != null) {
+                unlink(previous);
+            }
+            sketch.increment(spread(key));
+
+            if (weight > maximumWeight) {
+                // Can never fit, drop it right away
+                data.remove(key, node);
+                evictions.increment();
+                return;
+            }
+
+            linkLast(window, node);
+            node.region = Region.WINDOW;
+            windowWeight += weight;
+            weightedSize += weight;
+            schedule(node);
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void recordAccess(Node<K, V> node) {
+        // Lossy under contention: a dropped reorder only makes the policy slightly less precise
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            if (node.region == null) {
+                return;
+            }
+            sketch.increment(spread(node.key));
+            switch (node.region) {
+                case WINDOW:
+                    moveToLast(window, node);
+                    break;
+                case PROBATION:
+                    unlinkNode(node);
+                    linkLast(protectedRegion, node);
+                    node.region = Region.PROTECTED;
+                    protectedWeight += node.weight;
+                    demoteProtected();
+                    break;
+                case PROTECTED:
+                    moveToLast(protectedRegion, node);
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaximum && protectedRegion.next != protectedRegion) {
+            Node<K, V> demoted = protectedRegion.next;
+            unlinkNode(demoted);
+            protectedWeight -= demoted.weight;
+            linkLast(probation, demoted);
+            demoted.region = Region.PROBATION;
+        }
+    }
+
+    private void evict() {
+        // Entries leaving the window become admission candidates at the tail of probation
+        Node<K, V> firstCandidate = null;
+        while (windowWeight > windowMaximum && window.next != window) {
+            Node<K, V> candidate = window.next;
+            unlinkNode(candidate);
+            windowWeight -= candidate.weight;
+            linkLast(probation, candidate);
+            candidate.region = Region.PROBATION;
+            if (firstCandidate == null) {
+                firstCandidate = candidate;
+            }
+        }
+
+        while (weightedSize > maximumWeight) {
+            Node<K, V> victim = probation.next != probation ? probation.next : null;
+            Node<K, V> candidate = firstCandidate;
+
+            if (victim == null) {
+                // Probation is empty, fall back to protected and then the window
+                Node<K, V> fallback = protectedRegion.next != protectedRegion ? protectedRegion.next : window.next;
+                evictNode(fallback);
+                continue;
+            }
+            if (candidate == null || candidate == victim) {
+                if (candidate == victim) {
+                    firstCandidate = victim.next != probation ? victim.next : null;
+                }
+                evictNode(victim);
+                continue;
+            }
+
+            // TinyLFU admission: keep whichever of the two is used more often
+            if (sketch.frequency(spread(candidate.key)) > sketch.frequency(spread(victim.key))) {
+                evictNode(victim);
+            } else {
+                firstCandidate = candidate.next != probation ? candidate.next : null;
+                evictNode(candidate);
+            }
+        }
+    }
+
+    private void evictNode(Node<K, V> node) {
+        if (data.remove(node.key, node)) {
+            evictions.increment();
+        }
+        unlink(node);
+    }
+
+    private void expire(Node<K, V> node) {
+        evictionLock.lock();
+        try {
+            if (data.remove(node.key, node)) {
+                expirations.increment();
+            }
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void schedule(Node<K, V> node) {
+        if (node.expiresAt == NO_EXPIRY) {
+            return;
+        }
+        Node<K, V> bucket = wheel[(int) ((node.expiresAt / TICK_NANOS) & (WHEEL_BUCKETS - 1))];
+        node.wheelPrev = bucket.wheelPrev;
+        node.wheelNext = bucket;
+        bucket.wheelPrev.wheelNext = node;
+        bucket.wheelPrev = node;
+    }
+
+    private void advanceWheel(long now) {
+        long tick = now / TICK_NANOS;
+        // After a full turn every bucket has been visited once
+        long from = Math.max(currentTick, tick - WHEEL_BUCKETS + 1);
+        for (long t = from; t <= tick; t++) {
+            Node<K, V> bucket = wheel[(int) (t & (WHEEL_BUCKETS - 1))];
+            Node<K, V> node = bucket.wheelNext;
+            while (node != bucket) {
+                Node<K, V> next = node.wheelNext;
+                if (node.isExpired(now)) {
+                    if (data.remove(node.key, node)) {
+                        expirations.increment();
+                    }
+                    unlink(node);
+                }
+                node = next;
+            }
+        }
+        currentTick = tick;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.region != null) {
+            switch (node.region) {
+                case WINDOW:
+                    windowWeight -= node.weight;
+                    break;
+                case PROTECTED:
+                    protectedWeight -= node.weight;
+                    break;
+                default:
+                    break;
+            }
+            unlinkNode(node);
+            weightedSize -= node.weight;
+            node.region = null;
+        }
+        if (node.wheelNext != null) {
+            node.wheelPrev.wheelNext = node.wheelNext;
+            node.wheelNext.wheelPrev = node.wheelPrev;
+            node.wheelPrev = null;
+            node.wheelNext = null;
+        }
+    }
+
+    private static <K, V> void linkLast(Node<K, V> head, Node<K, V> node) {
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    private static <K, V> void unlinkNode(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static <K, V> void moveToLast(Node<K, V> head, Node<K, V> node) {
+        unlinkNode(node);
+        linkLast(head, node);
+    }
+
+    private static int spread(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Expiry run of one cache. Holds the cache weakly, so a cache dropped without {@link #close()}
+     * can still be collected; the task then cancels itself.
+     */
+    private static final class ExpiryTask implements Runnable {
+
+        private final WeakReference<BoundedCache<?, ?>> cache;
+        private volatile ScheduledFuture<?> future;
+
+        ExpiryTask(BoundedCache<?, ?> cache) {
+            this.cache = new WeakReference<>(cache);
+        }
+
+        @Override
+        public void run() {
+            BoundedCache<?, ?> target = cache.get();
+            if (target != null) {
+                target.cleanUp();
+            } else if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private enum Region {
+        WINDOW,
+        PROBATION,
+        PROTECTED
+    }
+
+    private static class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final int weight;
+        private final long expiresAt;
+
+        private Region region;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+        private Node<K, V> wheelPrev;
+        private Node<K, V> wheelNext;
+
+        Node(K key, V value, int weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+
+        static <K, V> Node<K, V> sentinel() {
+            Node<K, V> sentinel = new Node<>(null, null, 0, NO_EXPIRY);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            sentinel.wheelPrev = sentinel;
+            sentinel.wheelNext = sentinel;
+            return sentinel;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0 && expiresAt != NO_EXPIRY;
+        }
+    }
+}
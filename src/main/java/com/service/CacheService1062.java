@@ -8,7 +8,10 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Simple in-memory cache service.
  * Provides thread-safe caching with TTL support.
+ *
+ * @deprecated unbounded and only expires entries on read; use {@link BoundedCache}
  */
+@Deprecated
 public class CacheService1062 {
 
     private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
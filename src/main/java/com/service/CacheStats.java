@@ -0,0 +1,48 @@
+package com.service;
+
+/**
+ * Immutable snapshot of cache statistics.
+ */
+public class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long evictionCount;
+    private final long expirationCount;
+
+    public CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+                      long evictionCount, long expirationCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+    }
+
+    /**
+     * Returns the ratio of lookups that found a live entry.
+     * @return hit rate between 0 and 1, or 1 if there were no lookups
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public long getHitCount() { return hitCount; }
+    public long getMissCount() { return missCount; }
+    public long getLoadSuccessCount() { return loadSuccessCount; }
+    public long getLoadFailureCount() { return loadFailureCount; }
+    public long getEvictionCount() { return evictionCount; }
+    public long getExpirationCount() { return expirationCount; }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{hits=%d, misses=%d, hitRate=%.4f, loads=%d, loadFailures=%d, "
+                        + "evictions=%d, expirations=%d}",
+                hitCount, missCount, hitRate(), loadSuccessCount, loadFailureCount,
+                evictionCount, expirationCount);
+    }
+}
@@ -0,0 +1,87 @@
+package com.service;
+
+/**
+ * Count-min sketch with 4-bit counters, used to estimate how often a key was accessed.
+ * Counters are halved once the number of increments reaches the sample size, so the
+ * estimate follows recent popularity instead of all-time popularity.
+ */
+class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param maximumSize the number of entries the owning cache can hold
+     */
+    FrequencySketch(long maximumSize) {
+        int size = (int) Math.min(Math.max(maximumSize, 16), 1 << 26);
+        int capacity = Integer.highestOneBit(size - 1) << 1;
+        this.table = new long[capacity];
+        this.tableMask = capacity - 1;
+        this.sampleSize = 10 * capacity;
+    }
+
+    /**
+     * Returns the estimated access frequency of the key, between 0 and 15.
+     * @param hash the spread hash of the key
+     * @return estimated frequency
+     */
+    int frequency(int hash) {
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < SEEDS.length; i++) {
+            frequency = Math.min(frequency, counter(hash, i));
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the access frequency of the key.
+     * @param hash the spread hash of the key
+     */
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int index = indexOf(hash, i);
+            int offset = offsetOf(hash, i);
+            long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private int counter(int hash, int depth) {
+        return (int) ((table[indexOf(hash, depth)] >>> offsetOf(hash, depth)) & 0xfL);
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private int offsetOf(int hash, int depth) {
+        // Each depth uses its own quarter of the 16 counters in a word
+        return ((depth << 2) + ((hash >>> (depth << 3)) & 3)) << 2;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = additions >>> 1;
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.service;
+
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+/**
+ * Cache tier for large binary payloads kept outside the Java heap.
+ * Values live in direct {@link ByteBuffer}s; the total number of bytes is bounded by the
+ * capacity, and eviction follows the same policy as {@link BoundedCache}. Evicted buffers
+ * are released by the garbage collector once no reader holds them any more, so the JVM's
+ * {@code -XX:MaxDirectMemorySize} should leave headroom above the capacity.
+ * <p>
+ * Off-heap storage can be switched off, in which case the same bounds apply to heap buffers.
+ *
+ * @param <K> the type of keys
+ */
+public class OffHeapCache<K> implements AutoCloseable {
+
+    private final BoundedCache<K, ByteBuffer> cache;
+    private final long capacityBytes;
+    private final boolean direct;
+
+    /**
+     * @param capacityBytes maximum number of payload bytes held off-heap
+     * @param maximumEntries expected number of entries, used to size the admission sketch
+     * @param ttlMs time to live of entries, or 0 for no expiry
+     */
+    public OffHeapCache(long capacityBytes, long maximumEntries, long ttlMs) {
+        this(capacityBytes, maximumEntries, ttlMs, true);
+    }
+
+    /**
+     * @param capacityBytes maximum number of payload bytes held
+     * @param maximumEntries expected number of entries, used to size the admission sketch
+     * @param ttlMs time to live of entries, or 0 for no expiry
+     * @param direct whether payloads are stored in direct (off-heap) buffers
+     */
+    public OffHeapCache(long capacityBytes, long maximumEntries, long ttlMs, boolean direct) {
+        this.capacityBytes = capacityBytes;
+        this.direct = direct;
+        this.cache = new BoundedCache<>(capacityBytes, maximumEntries, ttlMs,
+                (key, buffer) -> Math.max(1, buffer.capacity()));
+    }
+
+    /**
+     * Gets a payload from the cache.
+     * @param key the cache key
+     * @return a read-only view positioned at the start of the payload, or null if not cached
+     */
+    public ByteBuffer get(K key) {
+        ByteBuffer buffer = cache.get(key);
+        return buffer != null ? buffer.asReadOnlyBuffer() : null;
+    }
+
+    /**
+     * Copies a payload off-heap and caches it. Payloads larger than the capacity are not kept.
+     * @param key the cache key
+     * @param bytes the payload
+     * @return a read-only view of the stored payload
+     */
+    public ByteBuffer put(K key, byte[] bytes) {
+        ByteBuffer buffer = toBuffer(bytes);
+        cache.put(key, buffer);
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Gets a payload, loading it on a miss. Concurrent callers for the same key share one load.
+     * @param key the cache key
+     * @param loader reads the payload; a null result is returned but not cached
+     * @return a read-only view of the payload, or null if the loader returned null
+     */
+    public ByteBuffer getOrLoad(K key, Function<? super K, byte[]> loader) {
+        ByteBuffer buffer = cache.getOrLoad(key, k -> {
+            byte[] bytes = loader.apply(k);
+            return bytes != null ? toBuffer(bytes) : null;
+        });
+        return buffer != null ? buffer.asReadOnlyBuffer() : null;
+    }
+
+    /**
+     * Removes a payload from the cache.
+     * @param key the cache key
+     */
+    public void remove(K key) {
+        cache.remove(key);
+    }
+
+    /**
+     * Clears all payloads from the cache.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Returns the number of payload bytes currently held.
+     * @return used bytes
+     */
+    public long usedBytes() {
+        return cache.weightedSize();
+    }
+
+    public long capacityBytes() {
+        return capacityBytes;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    private ByteBuffer toBuffer(byte[] bytes) {
+        ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(bytes.length) : ByteBuffer.allocate(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,88 @@
+package com.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one computation.
+ * The first caller runs the supplier; callers arriving while it is in flight wait for and
+ * share its result or exception. Nothing is kept once the call completes, so this is not a cache.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of results
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    /**
+     * Runs the supplier, or joins a call for the same key that is already running.
+     * @param key the call key
+     * @param supplier computes the result
+     * @return the result, possibly computed by another thread
+     */
+    public V execute(K key, Supplier<? extends V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            collapsed.increment();
+            return await(running);
+        }
+
+        executions.increment();
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Returns the number of calls that ran the supplier.
+     * @return execution count
+     */
+    public long executions() {
+        return executions.sum();
+    }
+
+    /**
+     * Returns the number of calls that shared another call's result.
+     * @return collapsed call count
+     */
+    public long collapsed() {
+        return collapsed.sum();
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     * @return in-flight count
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
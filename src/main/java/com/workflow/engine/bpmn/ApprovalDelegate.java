@@ -15,11 +15,8 @@ public class ApprovalDelegate implements JavaDelegate {
 
     @Override
     public void execute(DelegateExecution execution) throws Exception {
-        String processInstanceId = execution.getProcessInstanceId();
-        String activityId = execution.getCurrentActivityId();
-
-        log.info("Executing approval delegate for process: {}, activity: {}",
-                processInstanceId, activityId);
+        // Process instance and activity ids are in the engine's logging context (MDC)
+        log.info("Executing approval delegate");
 
         // Retrieve approval-related variables
         Boolean approved = (Boolean) execution.getVariable("approved");
@@ -28,7 +25,7 @@ public class ApprovalDelegate implements JavaDelegate {
 
     // Validate input parameters before processing
         if (approved == null) {
-            log.warn("Approval decision not set for process: {}", processInstanceId);
+            log.warn("Approval decision not set");
             execution.setVariable("approvalStatus", "PENDING");
             return;
         }
@@ -36,16 +33,14 @@ public class ApprovalDelegate implements JavaDelegate {
         if (approved) {
             execution.setVariable("approvalStatus", "APPROVED");
             execution.setVariable("approvalTimestamp", System.currentTimeMillis());
-            log.info("Request APPROVED by {} for process: {}. Comment: {}",
-                    approver, processInstanceId, approvalComment);
+            log.info("Request APPROVED by {}. Comment: {}", approver, approvalComment);
         } else {
             execution.setVariable("approvalStatus", "REJECTED");
 
             execution.setVariable("rejectionTimestamp", System.currentTimeMillis());
 
             execution.setVariable("rejectionReason", approvalComment);
-            log.info("Request REJECTED by {} for process: {}. Reason: {}",
-                    approver, processInstanceId, approvalComment);
+            log.info("Request REJECTED by {}. Reason: {}", approver, approvalComment);
         }
 
         // Set next step variable based on approval
@@ -28,7 +28,6 @@ public class EmailDelegate implements JavaDelegate {
      */
     public void execute(DelegateExecution execution) throws Exception {
         String processInstanceId = execution.getProcessInstanceId();
-        String activityId = execution.getCurrentActivityId();
 
         // Read email parameters from process variables
         String to = (String) execution.getVariable("emailTo");
@@ -38,8 +37,7 @@ public class EmailDelegate implements JavaDelegate {
 
 
         if (to == null || to.isBlank()) {
-            log.warn("No email recipient specified for process: {}, activity: {}",
-                    processInstanceId, activityId);
+            log.warn("No email recipient specified");
             execution.setVariable("emailStatus", "SKIPPED");
             execution.setVariable("emailError", "No recipient specified");
             return;
@@ -56,8 +54,7 @@ public class EmailDelegate implements JavaDelegate {
             body = buildDefaultBody(execution);
         }
 
-        log.info("Sending email - To: {}, Subject: {}, Process: {}",
-                to, subject, processInstanceId);
+        log.info("Sending email - To: {}, Subject: {}", to, subject);
 
         if (emailEnabled) {
             try {
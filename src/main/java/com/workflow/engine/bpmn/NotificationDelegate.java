@@ -17,11 +17,9 @@ public class NotificationDelegate implements JavaDelegate {
     @Override
     public void execute(DelegateExecution execution) throws Exception {
         String processInstanceId = execution.getProcessInstanceId();
-        String activityId = execution.getCurrentActivityId();
         String processDefinitionId = execution.getProcessDefinitionId();
 
-        log.info("Sending notification for process: {}, activity: {}",
-                processInstanceId, activityId);
+        log.info("Sending notification");
 
         // Determine notification type from process variables
         String notificationType = (String) execution.getVariable("notificationType");
@@ -0,0 +1,67 @@
+package com.workflow.engine.cache;
+
+import com.service.BoundedCache;
+import com.service.CacheStats;
+import com.workflow.engine.config.CacheProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CacheManager} creating one {@link BoundedCache} per cache name, sized from
+ * {@link CacheProperties}.
+ */
+public class BoundedCacheManager implements CacheManager, DisposableBean {
+
+    private final CacheProperties cacheProperties;
+    private final Map<String, BoundedSpringCache> caches = new ConcurrentHashMap<>();
+
+    public BoundedCacheManager(CacheProperties cacheProperties) {
+        this.cacheProperties = cacheProperties;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            CacheProperties.Spec spec = cacheProperties.specFor(cacheName);
+            return new BoundedSpringCache(cacheName,
+                    new BoundedCache<>(spec.getMaximumSize(), spec.getTtlMs()));
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Returns hit rate, size and eviction counts of every cache.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> {
+            CacheStats cacheStats = cache.getStats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", cache.getNativeCache().size());
+            entry.put("hitRate", cacheStats.hitRate());
+            entry.put("hits", cacheStats.getHitCount());
+            entry.put("misses", cacheStats.getMissCount());
+            entry.put("evictions", cacheStats.getEvictionCount());
+            entry.put("expirations", cacheStats.getExpirationCount());
+            stats.put(name, entry);
+        });
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        caches.values().forEach(cache -> cache.getNativeCache().close());
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.workflow.engine.cache;
+
+import com.service.BoundedCache;
+import com.service.CacheStats;
+import com.workflow.engine.jfr.CacheMissEvent;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Spring {@link org.springframework.cache.Cache} view of a {@link BoundedCache}.
+ */
+public class BoundedSpringCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final BoundedCache<Object, Object> cache;
+
+    public BoundedSpringCache(String name, BoundedCache<Object, Object> cache) {
+        super(false);
+        this.name = name;
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public BoundedCache<Object, Object> getNativeCache() {
+        return cache;
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = cache.get(key);
+        if (value == null) {
+            CacheMissEvent event = new CacheMissEvent();
+            if (event.shouldCommit()) {
+                event.cache = name;
+                event.key = String.valueOf(key);
+                event.commit();
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Null results are returned but not cached
+        return (T) cache.getOrLoad(key, k -> {
+            CacheMissEvent event = new CacheMissEvent();
+            event.begin();
+            try {
+                return valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.cache = name;
+                    event.key = String.valueOf(k);
+                    event.commit();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value != null) {
+            cache.put(key, value);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+}
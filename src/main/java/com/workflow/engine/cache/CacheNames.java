@@ -0,0 +1,16 @@
+package com.workflow.engine.cache;
+
+/**
+ * Names of the application caches, configurable under {@code app.cache.specs.<name>}.
+ */
+public final class CacheNames {
+
+    private CacheNames() {
+        // Prevent instantiation
+    }
+
+    public static final String PROCESS_DEFINITION_LIST = "processDefinitionList";
+    public static final String PROCESS_DEFINITIONS = "processDefinitions";
+    public static final String BPMN_VALIDATION = "bpmnValidation";
+    public static final String CANDIDATE_GROUPS = "candidateGroups";
+}
@@ -0,0 +1,70 @@
+package com.workflow.engine.cache;
+
+import com.service.OffHeapCache;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.cmd.AbstractDeleteProcessDefinitionCmd;
+import org.camunda.bpm.engine.impl.cmd.AbstractSetProcessDefinitionStateCmd;
+import org.camunda.bpm.engine.impl.cmd.DeleteDeploymentCmd;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+
+/**
+ * Clears the cached definitions, their validation results and the listing when a deployment or
+ * process definition is deleted, or a definition is suspended or activated. Parsing only covers
+ * new deployments; these commands change or remove definitions under an id that is already
+ * cached. Deletions also drop the off-heap BPMN models, which suspension leaves unchanged.
+ * Runs inside the command context and evicts once the transaction commits.
+ */
+public class DefinitionCacheEvictionInterceptor extends CommandInterceptor {
+
+    private static final List<String> EVICTED_CACHES = List.of(
+            CacheNames.PROCESS_DEFINITION_LIST, CacheNames.PROCESS_DEFINITIONS, CacheNames.BPMN_VALIDATION);
+
+    private final CacheManager cacheManager;
+    private final OffHeapCache<String> bpmnModelCache;
+
+    public DefinitionCacheEvictionInterceptor(CacheManager cacheManager, OffHeapCache<String> bpmnModelCache) {
+        this.cacheManager = cacheManager;
+        this.bpmnModelCache = bpmnModelCache;
+    }
+
+    @Override
+    public <T> T execute(Command<T> command) {
+        if (changesDefinitions(command)) {
+            CommandContext commandContext = Context.getCommandContext();
+            if (commandContext != null) {
+                boolean deletes = deletesDefinitions(command);
+                commandContext.getTransactionContext()
+                        .addTransactionListener(TransactionState.COMMITTED, ctx -> evict(deletes));
+            }
+        }
+        return next.execute(command);
+    }
+
+    private static boolean changesDefinitions(Command<?> command) {
+        return deletesDefinitions(command) || command instanceof AbstractSetProcessDefinitionStateCmd;
+    }
+
+    private static boolean deletesDefinitions(Command<?> command) {
+        return command instanceof DeleteDeploymentCmd || command instanceof AbstractDeleteProcessDefinitionCmd;
+    }
+
+    private void evict(boolean deletes) {
+        for (String name : EVICTED_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        if (deletes) {
+            bpmnModelCache.clear();
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.workflow.engine.cache;
+
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Clears the definition listing whenever the engine parses a BPMN model, which covers
+ * deployments made through our API, the engine REST API and Cockpit alike. Eviction waits
+ * for the deployment to commit, so a concurrent read cannot cache the old listing again.
+ * Deletion and suspension changes are handled by {@link DefinitionCacheEvictionInterceptor}.
+ */
+public class DeploymentCacheEvictionParseListener extends AbstractBpmnParseListener {
+
+    private final CacheManager cacheManager;
+
+    public DeploymentCacheEvictionParseListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext != null) {
+            commandContext.getTransactionContext()
+                    .addTransactionListener(TransactionState.COMMITTED, ctx -> evictListing());
+        } else {
+            evictListing();
+        }
+    }
+
+    private void evictListing() {
+        Cache cache = cacheManager.getCache(CacheNames.PROCESS_DEFINITION_LIST);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+}
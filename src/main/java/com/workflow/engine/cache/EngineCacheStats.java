@@ -0,0 +1,48 @@
+package com.workflow.engine.cache;
+
+import com.service.CacheStats;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCache;
+import org.camunda.commons.utils.cache.Cache;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hit rates of the engine's deployment caches. The caches are registered once the engine is
+ * built; only caches created by {@link TinyLfuCacheFactory} report hit and miss counts.
+ */
+@Component
+public class EngineCacheStats {
+
+    private final Map<String, Cache<String, ?>> caches = new LinkedHashMap<>();
+
+    public synchronized void register(DeploymentCache deploymentCache) {
+        caches.clear();
+        caches.put("processDefinitions", deploymentCache.getProcessDefinitionCache());
+        caches.put("bpmnModels", deploymentCache.getBpmnModelInstanceCache());
+        caches.put("decisionDefinitions", deploymentCache.getDecisionDefinitionCache());
+        caches.put("dmnModels", deploymentCache.getDmnDefinitionCache());
+    }
+
+    /**
+     * Returns size and, where available, hit rate and eviction counts of every engine cache.
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", cache.size());
+            if (cache instanceof TinyLfuEngineCache) {
+                CacheStats cacheStats = ((TinyLfuEngineCache<?>) cache).getStats();
+                entry.put("hitRate", cacheStats.hitRate());
+                entry.put("hits", cacheStats.getHitCount());
+                entry.put("misses", cacheStats.getMissCount());
+                entry.put("evictions", cacheStats.getEvictionCount());
+            }
+            stats.put(name, entry);
+        });
+        return stats;
+    }
+
+}
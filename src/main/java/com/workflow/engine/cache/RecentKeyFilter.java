@@ -0,0 +1,106 @@
+package com.workflow.engine.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the most recently added keys. "Absent" is certain, "present" is wrong at
+ * about the configured rate. Keys go into the current generation; once it holds its expected
+ * number of keys the previous generation is dropped, so the filter covers between one and two
+ * generations of keys and never fills up.
+ */
+public class RecentKeyFilter {
+
+    private final int expectedKeys;
+    private final int bits;
+    private final int hashes;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    /**
+     * @param expectedKeys keys per generation
+     * @param falsePositiveRate wrong "present" answers per lookup with a full generation, e.g. 0.01
+     */
+    public RecentKeyFilter(int expectedKeys, double falsePositiveRate) {
+        this.expectedKeys = Math.max(expectedKeys, 64);
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-this.expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bits = (int) Math.min(Math.max(optimalBits, 64), Integer.MAX_VALUE - 63);
+        this.hashes = Math.max(1, (int) Math.round((double) bits / this.expectedKeys * ln2));
+        this.current = new Generation(bits);
+        this.previous = new Generation(bits);
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        return current.contains(hash, bits, hashes) || previous.contains(hash, bits, hashes);
+    }
+
+    public void put(String key) {
+        long hash = hash(key);
+        Generation generation = current;
+        generation.add(hash, bits, hashes);
+        if (generation.keys.incrementAndGet() == expectedKeys) {
+            rotate(generation);
+        }
+    }
+
+    private synchronized void rotate(Generation full) {
+        if (current == full) {
+            previous = full;
+            current = new Generation(bits);
+        }
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes, finished with a mix so both halves are usable
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Generation {
+
+        private final AtomicLongArray words;
+        private final AtomicInteger keys = new AtomicInteger();
+
+        Generation(int bits) {
+            this.words = new AtomicLongArray((bits + 63) >>> 6);
+        }
+
+        void add(long hash, int bits, int hashes) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long value;
+                do {
+                    value = words.get(word);
+                } while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask));
+            }
+        }
+
+        boolean contains(long hash, int bits, int hashes) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
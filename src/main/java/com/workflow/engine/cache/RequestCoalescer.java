@@ -0,0 +1,48 @@
+package com.workflow.engine.cache;
+
+import com.service.SingleFlight;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares one in-flight computation between concurrent identical reads. Calls are grouped by
+ * name (one per read endpoint) and keyed by their arguments within a group.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, SingleFlight<String, Object>> groups = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the supplier, or joins an identical call that is already running.
+     * Results are shared between callers and must not be modified.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String group, String key, Supplier<T> supplier) {
+        return (T) groups.computeIfAbsent(group, name -> new SingleFlight<>()).execute(key, supplier);
+    }
+
+    /**
+     * Returns executed and collapsed call counts per group.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        groups.forEach((name, singleFlight) -> {
+            long executions = singleFlight.executions();
+            long collapsed = singleFlight.collapsed();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("executions", executions);
+            entry.put("collapsed", collapsed);
+            entry.put("collapseRatio", executions + collapsed == 0 ? 0.0
+                    : (double) collapsed / (executions + collapsed));
+            entry.put("inFlight", singleFlight.inFlight());
+            stats.put(name, entry);
+        });
+        return stats;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.workflow.engine.cache;
+
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.CacheFactory;
+import org.camunda.commons.utils.cache.Cache;
+
+/**
+ * Creates the engine's deployment caches (process, case and decision definitions and their
+ * parsed models) as {@link TinyLfuEngineCache}s. Unlike the default LRU, a one-off lookup of a
+ * rarely used definition cannot push out a definition that is read all the time.
+ */
+public class TinyLfuCacheFactory implements CacheFactory {
+
+    @Override
+    public <T> Cache<String, T> createCache(int maxNumberOfElementsInCache) {
+        return new TinyLfuEngineCache<>(maxNumberOfElementsInCache);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.workflow.engine.cache;
+
+import com.service.BoundedCache;
+import com.service.CacheStats;
+import com.workflow.engine.jfr.CacheMissEvent;
+import org.camunda.commons.utils.cache.Cache;
+
+import java.util.Set;
+
+/**
+ * Camunda deployment cache backed by a {@link BoundedCache}. Entries never expire; they are
+ * only evicted by the W-TinyLFU policy once the capacity is reached.
+ */
+public class TinyLfuEngineCache<V> implements Cache<String, V> {
+
+    private final BoundedCache<String, V> cache;
+
+    public TinyLfuEngineCache(int capacity) {
+        this.cache = new BoundedCache<>(capacity, 0);
+    }
+
+    @Override
+    public V get(String key) {
+        V value = cache.get(key);
+        if (value == null) {
+            CacheMissEvent event = new CacheMissEvent();
+            if (event.shouldCommit()) {
+                event.cache = "engine";
+                event.key = key;
+                event.commit();
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void put(String key, V value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void remove(String key) {
+        cache.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return cache.size() == 0;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return cache.keySet();
+    }
+
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+}
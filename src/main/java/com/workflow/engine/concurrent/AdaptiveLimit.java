@@ -0,0 +1,70 @@
+package com.workflow.engine.concurrent;
+
+/**
+ * Concurrency limit driven by latency. While the smoothed latency stays under the target and the
+ * limit is in use, it grows by one per window of calls (additive increase). Above the target it
+ * shrinks in proportion to the overshoot, by at most half and at most once per smoothed latency,
+ * so one slow period does not collapse it to the minimum.
+ */
+class AdaptiveLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double MAX_DECREASE = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetNanos;
+
+    private double limit;
+    private int inFlight;
+    private double smoothedNanos = -1;
+    private long lastDecreaseNanos;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, long targetNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.targetNanos = targetNanos;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Ends a call admitted by {@link #tryAcquire()} and adjusts the limit to its latency.
+     * @param now {@link System#nanoTime()} at the end of the call
+     */
+    synchronized void release(long latencyNanos, long now) {
+        boolean saturated = inFlight * 2 >= limit;
+        inFlight--;
+        smoothedNanos = smoothedNanos < 0 ? latencyNanos : smoothedNanos + SMOOTHING * (latencyNanos - smoothedNanos);
+
+        if (smoothedNanos > targetNanos) {
+            if (now - lastDecreaseNanos >= smoothedNanos) {
+                double ratio = Math.max(MAX_DECREASE, targetNanos / smoothedNanos);
+                limit = Math.max(minLimit, limit * ratio);
+                lastDecreaseNanos = now;
+            }
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    synchronized long getSmoothedLatencyMillis() {
+        return smoothedNanos < 0 ? 0 : (long) (smoothedNanos / 1_000_000);
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.workflow.engine.concurrent;
+
+import com.workflow.engine.config.BulkheadProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executors for async endpoints, one per name (one per controller), so a slow endpoint
+ * exhausts its own threads and queue instead of the servlet threads other requests need. A call
+ * is rejected with 503 when its bulkhead's queue is full, and answered with 503 when it does not
+ * finish within the timeout.
+ *
+ * <p>The executors keep platform threads even with virtual threads enabled: their size is the
+ * limit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class Bulkheads {
+
+    private final BulkheadProperties bulkheadProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the supplier on the named bulkhead and completes the returned result with its value.
+     * @throws ResponseStatusException with status 503 when the bulkhead is full
+     */
+    public <T> DeferredResult<T> execute(String name, Supplier<T> supplier) {
+        return bulkheads.computeIfAbsent(name, this::create).execute(supplier);
+    }
+
+    /**
+     * Returns pool usage, rejections and timeouts per bulkhead.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        bulkheads.forEach((name, bulkhead) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("threads", bulkhead.executor.getMaximumPoolSize());
+            entry.put("active", bulkhead.executor.getActiveCount());
+            entry.put("queued", bulkhead.executor.getQueue().size());
+            entry.put("completed", bulkhead.executor.getCompletedTaskCount());
+            entry.put("rejected", (long) bulkhead.rejected.count());
+            entry.put("timedOut", (long) bulkhead.timedOut.count());
+            stats.put(name, entry);
+        });
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        bulkheads.values().forEach(bulkhead -> bulkhead.executor.shutdownNow());
+    }
+
+    private Bulkhead create(String name) {
+        BulkheadProperties.Spec spec = bulkheadProperties.specFor(name);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(spec.getThreads(), spec.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(spec.getQueueCapacity()),
+                new CustomizableThreadFactory("bulkhead-" + name + "-"), new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queue.size", executor, pool -> pool.getQueue().size())
+                .tag("name", name)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("bulkhead.rejected").tag("name", name).register(meterRegistry);
+        Counter timedOut = Counter.builder("bulkhead.timeouts").tag("name", name).register(meterRegistry);
+        log.info("Bulkhead {}: {} threads, queue {}, timeout {} ms",
+                name, spec.getThreads(), spec.getQueueCapacity(), spec.getTimeoutMs());
+        return new Bulkhead(name, executor, spec.getTimeoutMs(), rejected, timedOut);
+    }
+
+    private static class Bulkhead {
+
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final long timeoutMs;
+        private final Counter rejected;
+        private final Counter timedOut;
+
+        Bulkhead(String name, ThreadPoolExecutor executor, long timeoutMs, Counter rejected, Counter timedOut) {
+            this.name = name;
+            this.executor = executor;
+            this.timeoutMs = timeoutMs;
+            this.rejected = rejected;
+            this.timedOut = timedOut;
+        }
+
+        <T> DeferredResult<T> execute(Supplier<T> supplier) {
+            DeferredResult<T> result = new DeferredResult<>(timeoutMs);
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            Future<?> future;
+            try {
+                future = executor.submit(() -> {
+                    if (context != null) {
+                        MDC.setContextMap(context);
+                    }
+                    try {
+                        result.setResult(supplier.get());
+                    } catch (RuntimeException e) {
+                        result.setErrorResult(e);
+                    } finally {
+                        MDC.clear();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Bulkhead " + name + " is full");
+            }
+
+            result.onTimeout(() -> {
+                timedOut.increment();
+                // A call still in the queue is dropped; a running query is left to finish
+                future.cancel(false);
+                executor.remove((Runnable) future);
+                result.setErrorResult(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Bulkhead " + name + " timed out after " + timeoutMs + " ms"));
+            });
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.workflow.engine.concurrent;
+
+import com.workflow.engine.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of process starts, so bulk start traffic cannot take every JDBC
+ * connection from interactive task requests. A start needs a slot in the caller's quota, in the
+ * process key's quota and in the global {@link AdaptiveLimit}; otherwise it is shed immediately
+ * with 429 and a Retry-After instead of queueing for a connection.
+ */
+@Component
+@Slf4j
+public class StartAdmissionControl {
+
+    private final AdmissionProperties properties;
+    private final AdaptiveLimit limit;
+    private final Map<String, Integer> callerInFlight = new ConcurrentHashMap<>();
+    private final Map<String, Integer> keyInFlight = new ConcurrentHashMap<>();
+    private final Counter limitRejections;
+    private final Counter callerRejections;
+    private final Counter keyRejections;
+
+    public StartAdmissionControl(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = new AdaptiveLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                properties.getMaxLimit(), TimeUnit.MILLISECONDS.toNanos(properties.getTargetLatencyMs()));
+
+        Gauge.builder("admission.start.limit", limit, AdaptiveLimit::getLimit)
+                .description("Concurrent process starts currently admitted")
+                .register(meterRegistry);
+        Gauge.builder("admission.start.in.flight", limit, AdaptiveLimit::getInFlight)
+                .register(meterRegistry);
+        limitRejections = rejections(meterRegistry, "limit");
+        callerRejections = rejections(meterRegistry, "caller");
+        keyRejections = rejections(meterRegistry, "key");
+    }
+
+    /**
+     * Runs the start if the caller, the key and the global limit all have room.
+     * @throws TooManyRequestsException when any of them is full
+     */
+    public <T> T execute(String processKey, String caller, Supplier<T> start) {
+        if (!properties.isEnabled()) {
+            return start.get();
+        }
+
+        if (!tryIncrement(callerInFlight, caller, properties.getPerCallerLimit())) {
+            callerRejections.increment();
+            throw rejected("Too many concurrent starts for caller " + caller);
+        }
+        if (!tryIncrement(keyInFlight, processKey, properties.getPerKeyLimit())) {
+            decrement(callerInFlight, caller);
+            keyRejections.increment();
+            throw rejected("Too many concurrent starts of " + processKey);
+        }
+        if (!limit.tryAcquire()) {
+            decrement(callerInFlight, caller);
+            decrement(keyInFlight, processKey);
+            limitRejections.increment();
+            throw rejected("Process starts are at capacity");
+        }
+
+        long begin = System.nanoTime();
+        try {
+            return start.get();
+        } finally {
+            long end = System.nanoTime();
+            limit.release(end - begin, end);
+            decrement(callerInFlight, caller);
+            decrement(keyInFlight, processKey);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("limit", limit.getLimit());
+        stats.put("inFlight", limit.getInFlight());
+        stats.put("smoothedLatencyMs", limit.getSmoothedLatencyMillis());
+        stats.put("rejectedByLimit", (long) limitRejections.count());
+        stats.put("rejectedByCaller", (long) callerRejections.count());
+        stats.put("rejectedByKey", (long) keyRejections.count());
+        return stats;
+    }
+
+    private TooManyRequestsException rejected(String reason) {
+        long latencySeconds = (limit.getSmoothedLatencyMillis() + 999) / 1000;
+        log.debug("Start rejected: {}", reason);
+        return new TooManyRequestsException(reason, Math.max(properties.getRetryAfterSeconds(), latencySeconds));
+    }
+
+    private static boolean tryIncrement(Map<String, Integer> inFlight, String id, int max) {
+        boolean[] admitted = new boolean[1];
+        inFlight.compute(id, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= max) {
+                return count;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+        return admitted[0];
+    }
+
+    // Entries are removed at zero so the maps only hold callers and keys with starts running
+    private static void decrement(Map<String, Integer> inFlight, String id) {
+        inFlight.computeIfPresent(id, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("admission.start.rejected")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+}
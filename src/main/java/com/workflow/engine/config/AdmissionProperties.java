@@ -0,0 +1,51 @@
+package com.workflow.engine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control for process starts. The global limit adapts between {@link #minLimit} and
+ * {@link #maxLimit}; the caller and key quotas are fixed. The quotas default to {@link #maxLimit},
+ * so a single caller or key can use the whole adaptive limit; set them lower to keep room for
+ * others when callers are known to flood.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.admission.start")
+@Getter
+@Setter
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    private int initialLimit = 4;
+
+    private int minLimit = 1;
+
+    /**
+     * Upper bound of concurrent starts; below the JDBC pool size so task requests keep connections.
+     */
+    private int maxLimit = 6;
+
+    /**
+     * Smoothed start latency above which the limit shrinks.
+     */
+    private long targetLatencyMs = 250;
+
+    /**
+     * Concurrent starts per authenticated caller.
+     */
+    private int perCallerLimit = 6;
+
+    /**
+     * Concurrent starts per process definition key.
+     */
+    private int perKeyLimit = 6;
+
+    /**
+     * Smallest Retry-After sent with 429; longer while starts are slower than this.
+     */
+    private int retryAfterSeconds = 1;
+
+}
@@ -0,0 +1,53 @@
+package com.workflow.engine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thread, queue and timeout settings of the executors behind the async endpoints, per bulkhead
+ * name.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.bulkhead")
+@Getter
+@Setter
+public class BulkheadProperties {
+
+    /**
+     * Settings used for bulkheads without an entry in {@link #specs}.
+     */
+    private Spec defaults = new Spec();
+
+    private Map<String, Spec> specs = new HashMap<>();
+
+    public Spec specFor(String name) {
+        return specs.getOrDefault(name, defaults);
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+
+        /**
+         * Calls running at once; keep the sum over all bulkheads below the JDBC pool size.
+         */
+        private int threads = 3;
+
+        /**
+         * Calls waiting for a thread; further calls are rejected with 503.
+         */
+        private int queueCapacity = 50;
+
+        /**
+         * Time from accepting a call until it is answered with 503 if still unfinished.
+         */
+        private long timeoutMs = 10000;
+
+    }
+
+}
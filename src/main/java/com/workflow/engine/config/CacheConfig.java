@@ -0,0 +1,25 @@
+package com.workflow.engine.config;
+
+import com.service.OffHeapCache;
+import com.workflow.engine.cache.BoundedCacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public BoundedCacheManager cacheManager(CacheProperties cacheProperties) {
+        return new BoundedCacheManager(cacheProperties);
+    }
+
+    @Bean
+    public OffHeapCache<String> bpmnModelCache(CacheProperties cacheProperties) {
+        CacheProperties.OffHeap settings = cacheProperties.getBpmnModels();
+        return new OffHeapCache<>(settings.getCapacityBytes(), settings.getMaximumEntries(),
+                settings.getTtlMs(), settings.isEnabled());
+    }
+
+}
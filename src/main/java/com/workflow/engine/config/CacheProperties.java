@@ -0,0 +1,84 @@
+package com.workflow.engine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Size and time-to-live settings of the application caches, per cache name.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.cache")
+@Getter
+@Setter
+public class CacheProperties {
+
+    /**
+     * Settings used for caches without an entry in {@link #specs}.
+     */
+    private Spec defaults = new Spec();
+
+    private Map<String, Spec> specs = new HashMap<>();
+
+    /**
+     * Settings of the byte cache holding BPMN model payloads.
+     */
+    private OffHeap bpmnModels = new OffHeap();
+
+    /**
+     * Settings of the engine's deployment caches.
+     */
+    private Engine engine = new Engine();
+
+    public Spec specFor(String cacheName) {
+        return specs.getOrDefault(cacheName, defaults);
+    }
+
+    @Getter
+    @Setter
+    public static class Spec {
+
+        private long maximumSize = 1000;
+
+        private long ttlMs = 300000;
+
+    }
+
+    @Getter
+    @Setter
+    public static class OffHeap {
+
+        /**
+         * Store payloads in direct buffers outside the heap; heap buffers are used otherwise.
+         */
+        private boolean enabled = true;
+
+        private long capacityBytes = 64L * 1024 * 1024;
+
+        private long maximumEntries = 500;
+
+        private long ttlMs = 3600000;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Engine {
+
+        /**
+         * Use the frequency-aware cache; the engine's default LRU cache is used otherwise.
+         */
+        private boolean tinyLfu = true;
+
+        /**
+         * Maximum number of entries in each deployment cache.
+         */
+        private int capacity = 1000;
+
+    }
+
+}
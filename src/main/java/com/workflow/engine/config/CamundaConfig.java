@@ -1,21 +1,111 @@
 package com.workflow.engine.config;
 
+import com.service.OffHeapCache;
+import com.workflow.engine.cache.DefinitionCacheEvictionInterceptor;
+import com.workflow.engine.cache.DeploymentCacheEvictionParseListener;
+import com.workflow.engine.cache.EngineCacheStats;
+import com.workflow.engine.cache.TinyLfuCacheFactory;
+import com.workflow.engine.history.AsyncHistoryEventWriter;
+import com.workflow.engine.history.HistoryLevelParseListener;
+import com.workflow.engine.history.HistoryRetentionParseListener;
+import com.workflow.engine.history.HistoryVolumeHistoryEventHandler;
+import com.workflow.engine.history.PerDefinitionHistoryLevel;
+import com.workflow.engine.history.ProcessCompletionHistoryEventHandler;
+import com.workflow.engine.history.ProcessHistoryLevelResolver;
+import com.workflow.engine.jfr.FlightRecorderCommandInterceptor;
+import com.workflow.engine.jfr.FlightRecorderDelegateInterceptor;
+import com.workflow.engine.jfr.FlightRecorderHistoryEventHandler;
+import com.workflow.engine.metrics.JobExecutorMetrics;
+import com.workflow.engine.metrics.TimedDelegateInterceptor;
+import com.workflow.engine.profiling.EngineProfiler;
+import com.workflow.engine.profiling.ProfilingCommandInterceptor;
+import com.workflow.engine.profiling.ProfilingSqlInterceptor;
+import com.workflow.engine.sync.ChangeTrackingParseListener;
+import com.workflow.engine.sync.ChangeVersions;
+import com.workflow.engine.sync.TaskChangeLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.ProcessEngineConfiguration;
-import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.delegate.DefaultDelegateInterceptor;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
 import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
 import org.camunda.bpm.spring.boot.starter.configuration.Ordering;
 import org.camunda.bpm.spring.boot.starter.configuration.impl.AbstractCamundaConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @Order(Ordering.DEFAULT_ORDER + 1)
+@RequiredArgsConstructor
 public class CamundaConfig extends AbstractCamundaConfiguration {
 
+    private final ProcessCompletionHistoryEventHandler processCompletionHistoryEventHandler;
+    private final HistoryVolumeHistoryEventHandler historyVolumeHistoryEventHandler;
+    private final ProcessHistoryLevelResolver processHistoryLevelResolver;
+    private final AsyncHistoryEventWriter asyncHistoryEventWriter;
+    private final HistoryProperties historyProperties;
+    private final CacheManager cacheManager;
+    private final OffHeapCache<String> bpmnModelCache;
+    private final CacheProperties cacheProperties;
+    private final EngineCacheStats engineCacheStats;
+    private final ChangeVersions changeVersions;
+    private final TaskChangeLog taskChangeLog;
+    private final MeterRegistry meterRegistry;
+    private final JobExecutorMetrics jobExecutorMetrics;
+    private final EngineProfiler engineProfiler;
+
+    @Value("${app.sync.tracked-tasks:50000}")
+    private int maxTrackedTasks;
+
     @Override
     public void preInit(SpringProcessEngineConfiguration configuration) {
-        // Set history level to FULL for complete audit trail
-        configuration.setHistoryLevel(HistoryLevel.HISTORY_LEVEL_FULL);
+        // FULL history for complete audit trail, narrowed per process via app.history.levels
+        // or a historyLevel extension property in the BPMN model
+        PerDefinitionHistoryLevel historyLevel = new PerDefinitionHistoryLevel(processHistoryLevelResolver);
+        configuration.setCustomHistoryLevels(List.of(historyLevel));
+        configuration.setHistory(historyLevel.getName());
+        configuration.setCustomPreBPMNParseListeners(List.of(
+                new HistoryLevelParseListener(processHistoryLevelResolver),
+                new HistoryRetentionParseListener(historyProperties)));
+        configuration.setCustomPostBPMNParseListeners(List.of(
+                new DeploymentCacheEvictionParseListener(cacheManager),
+                new ChangeTrackingParseListener(changeVersions, taskChangeLog, maxTrackedTasks)));
+
+        // History cleanup: engine jobs delete expired history in parallel batches inside the window
+        HistoryProperties.Cleanup cleanup = historyProperties.getCleanup();
+        configuration.setHistoryTimeToLive(cleanup.getDefaultTimeToLive());
+        configuration.setHistoryCleanupStrategy(cleanup.getStrategy());
+        configuration.setHistoryCleanupBatchWindowStartTime(cleanup.getWindowStart());
+        configuration.setHistoryCleanupBatchWindowEndTime(cleanup.getWindowEnd());
+        configuration.setHistoryCleanupDegreeOfParallelism(cleanup.getParallelism());
+        configuration.setHistoryCleanupBatchSize(cleanup.getBatchSize());
+        configuration.setHistoryCleanupBatchThreshold(cleanup.getBatchThreshold());
+
+        // Keep workflow_instances in sync with process end events; runs next to the DB writer
+        List<HistoryEventHandler> historyEventHandlers = new ArrayList<>();
+        if (asyncHistoryEventWriter.isEnabled()) {
+            // ACT_HI_* rows are written in batches by the history writer thread instead
+            configuration.setEnableDefaultDbHistoryEventHandler(false);
+            historyEventHandlers.add(asyncHistoryEventWriter);
+        }
+        historyEventHandlers.add(processCompletionHistoryEventHandler);
+        historyEventHandlers.add(historyVolumeHistoryEventHandler);
+        historyEventHandlers.add(new FlightRecorderHistoryEventHandler());
+        configuration.setCustomHistoryEventHandlers(historyEventHandlers);
+
+        // Deployment caches: frequency-aware admission keeps hot definitions from being re-parsed
+        CacheProperties.Engine engineCache = cacheProperties.getEngine();
+        configuration.setCacheCapacity(engineCache.getCapacity());
+        if (engineCache.isTinyLfu()) {
+            configuration.setCacheFactory(new TinyLfuCacheFactory());
+        }
 
     // FIXME: consider using StringBuilder for string concatenation
         // Job executor configuration
@@ -28,9 +118,33 @@ public class CamundaConfig extends AbstractCamundaConfiguration {
         // Enable metrics and telemetry
         configuration.setMetricsEnabled(true);
         configuration.setTelemetryReporterActivate(false);
+        // Micrometer timer and JFR event around every JavaDelegate.execute, and a JFR event per command
+        configuration.setDelegateInterceptor(new TimedDelegateInterceptor(
+                new FlightRecorderDelegateInterceptor(new DefaultDelegateInterceptor()), meterRegistry));
+        configuration.setCustomPreCommandInterceptorsTxRequired(List.of(
+                new FlightRecorderCommandInterceptor(), new ProfilingCommandInterceptor(engineProfiler)));
+        // Evict cached definitions when deployments are deleted or definitions suspended/activated
+        configuration.setCustomPostCommandInterceptorsTxRequired(List.of(
+                new DefinitionCacheEvictionInterceptor(cacheManager, bpmnModelCache)));
 
         // Configure async executor
         configuration.setDefaultNumberOfRetries(3);
     }
 
+    @Override
+    public void postInit(SpringProcessEngineConfiguration configuration) {
+        // Opt-in SQL profiling (app.profiler.enabled); the session factory exists only after init
+        configuration.getSqlSessionFactory().getConfiguration()
+                .addInterceptor(new ProfilingSqlInterceptor(engineProfiler));
+    }
+
+    @Override
+    public void postProcessEngineBuild(ProcessEngine processEngine) {
+        ProcessEngineConfigurationImpl configuration =
+                (ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration();
+        asyncHistoryEventWriter.start(configuration.getCommandExecutorTxRequiresNew());
+        engineCacheStats.register(configuration.getDeploymentCache());
+        jobExecutorMetrics.register(configuration);
+    }
+
 }
@@ -0,0 +1,73 @@
+package com.workflow.engine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * History settings that vary per process definition key.
+ *
+ * <p>The writer mode ({@code app.history.writer.mode}) applies to all definitions. In the
+ * {@code async} mode a request that ends an instance or completes a task may not see those
+ * history rows in its next read; use {@code async-with-ack} when callers read their own history.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.history")
+@Getter
+@Setter
+public class HistoryProperties {
+
+    /**
+     * History level per process definition key: full, audit, activity or none.
+     * Takes precedence over a {@code historyLevel} extension property in the BPMN model.
+     */
+    private Map<String, String> levels = new HashMap<>();
+
+    /**
+     * History time to live per process definition key, as days or ISO period (e.g. P90D).
+     * Takes precedence over {@code camunda:historyTimeToLive} in the BPMN model.
+     */
+    private Map<String, String> retention = new HashMap<>();
+
+    private Cleanup cleanup = new Cleanup();
+
+    @Getter
+    @Setter
+    public static class Cleanup {
+
+        /**
+         * Time to live for definitions that set none in the model or in {@link #retention}.
+         */
+        private String defaultTimeToLive = "P180D";
+
+        private String windowStart = "22:00";
+
+        private String windowEnd = "06:00";
+
+        /**
+         * Number of cleanup jobs deleting in parallel (1-8).
+         */
+        private int parallelism = 2;
+
+        /**
+         * Instances removed per cleanup transaction (max 500).
+         */
+        private int batchSize = 500;
+
+        /**
+         * Minimum number of removable instances before a run starts; fewer backs the job off.
+         */
+        private int batchThreshold = 10;
+
+        /**
+         * removalTimeBased or endTimeBased.
+         */
+        private String strategy = "removalTimeBased";
+
+    }
+
+}
@@ -7,6 +7,9 @@ import javax.servlet.http.HttpServletResponse;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,6 +28,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Configuration
@@ -35,7 +39,9 @@ public class SecurityConfig {
     private String jwtSecret;
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Qualifier("jwtAuthenticationFilter") OncePerRequestFilter jwtAuthenticationFilter)
+            throws Exception {
         http
             .csrf().disable()
             .sessionManagement()
@@ -45,17 +51,27 @@ public class SecurityConfig {
                 .antMatchers("/api/public/**").permitAll()
                 .antMatchers("/camunda/**").permitAll()
                 .antMatchers("/engine-rest/**").permitAll()
+                // Recordings and profiles expose internals; recordings also write to disk
+                .antMatchers("/actuator/flightrecorder/**", "/actuator/engineprofiler/**").hasRole("ADMIN")
                 .antMatchers("/actuator/**").permitAll()
                 .antMatchers("/api/**").authenticated()
                 .anyRequest().permitAll()
             .and()
-            .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
     @Bean
-    public OncePerRequestFilter jwtAuthenticationFilter() {
+    public OncePerRequestFilter jwtAuthenticationFilter(MeterRegistry meterRegistry) {
+        // Token verification time; requests without a bearer token are not recorded
+        Timer authenticated = Timer.builder("security.jwt.authentication")
+                .tag("outcome", "authenticated")
+                .register(meterRegistry);
+        Timer rejected = Timer.builder("security.jwt.authentication")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+
         return new OncePerRequestFilter() {
             @Override
             protected void doFilterInternal(HttpServletRequest request,
@@ -67,6 +83,7 @@ public class SecurityConfig {
 
                 if (authHeader != null && authHeader.startsWith("Bearer ")) {
                     String token = authHeader.substring(7);
+                    long started = System.nanoTime();
                     try {
                         SecretKey key = Keys.hmacShaKeyFor(
                                 jwtSecret.getBytes(StandardCharsets.UTF_8));
@@ -93,8 +110,10 @@ public class SecurityConfig {
                                         username, null, authorities);
 
                         SecurityContextHolder.getContext().setAuthentication(authentication);
+                        authenticated.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
                     } catch (Exception e) {
                         SecurityContextHolder.clearContext();
+                        rejected.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
                     }
                 }
 
@@ -0,0 +1,83 @@
+package com.workflow.engine.config;
+
+import com.workflow.engine.concurrent.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Opt-in virtual threads ({@code app.virtual-threads.enabled}, Java 21 runtime): Tomcat request
+ * processing and async MVC work such as streamed responses each run on a new virtual thread
+ * instead of a pooled platform thread.
+ *
+ * <p>The JDBC pool stays bounded, so database concurrency is unchanged; what changes is that
+ * requests waiting on a connection or on other I/O no longer hold a platform thread. The job
+ * executor keeps its platform threads because the engine holds monitors around job execution,
+ * which would pin virtual threads to their carriers. Delegates run on the calling thread, so the
+ * variables they set, such as {@code emailStatus}, still report the outcome.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Configuration
+    @Conditional(VirtualThreadsSupported.class)
+    @Slf4j
+    static class Enabled {
+
+        @PostConstruct
+        void announce() {
+            log.info("Virtual threads enabled for HTTP requests and async MVC; "
+                    + "run with -Djdk.tracePinnedThreads=short or record jdk.VirtualThreadPinned to find pinning");
+        }
+
+        @Bean
+        public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+            return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-vt-"));
+        }
+
+        // Replaces the pooled executor Spring MVC uses for async requests and streamed responses
+        @Bean(name = "applicationTaskExecutor")
+        public AsyncTaskExecutor applicationTaskExecutor() {
+            return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("mvc-vt-"));
+        }
+    }
+
+    @Configuration
+    @Conditional(VirtualThreadsUnsupported.class)
+    @Slf4j
+    static class Unsupported {
+
+        @PostConstruct
+        void warn() {
+            log.warn("app.virtual-threads.enabled is set but Java {} has no virtual threads; using platform threads",
+                    System.getProperty("java.version"));
+        }
+    }
+
+    static class VirtualThreadsSupported implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return VirtualThreads.isSupported();
+        }
+    }
+
+    static class VirtualThreadsUnsupported implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return !VirtualThreads.isSupported();
+        }
+    }
+
+}
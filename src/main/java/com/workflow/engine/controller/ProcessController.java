@@ -1,21 +1,34 @@
 package com.workflow.engine.controller;
 
+import com.workflow.engine.concurrent.Bulkheads;
+import com.workflow.engine.concurrent.StartAdmissionControl;
 import com.workflow.engine.dto.ProcessStartRequest;
 import com.workflow.engine.service.ProcessService;
+import com.workflow.engine.stream.InstanceExporter;
+import com.workflow.engine.stream.JsonRowStreamer;
+import com.workflow.engine.sync.ChangeVersions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.camunda.bpm.engine.repository.ProcessDefinition;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.io.IOException;
+import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/processes")
@@ -23,7 +36,15 @@ import java.util.Map;
 @Slf4j
 public class ProcessController {
 
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final String BULKHEAD = "processes";
+
     private final ProcessService processService;
+    private final ChangeVersions changeVersions;
+    private final JsonRowStreamer jsonRowStreamer;
+    private final InstanceExporter instanceExporter;
+    private final Bulkheads bulkheads;
+    private final StartAdmissionControl startAdmissionControl;
 
     @PostMapping(value = "/deploy", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Map<String, Object>> deployProcess(
@@ -44,13 +65,18 @@ public class ProcessController {
         }
     }
 
+    /**
+     * Starts an instance, or answers 429 with Retry-After when start admission is full.
+     */
     @PostMapping("/{key}/start")
     public ResponseEntity<Map<String, Object>> startProcess(
             @PathVariable String key,
-            @Valid @RequestBody ProcessStartRequest request) {
+            @Valid @RequestBody ProcessStartRequest request,
+            Principal principal) {
         log.info("Starting process with key: {}", key);
-        ProcessInstance instance = processService.startProcess(
-                key, request.getBusinessKey(), request.getVariables());
+        String caller = principal != null ? principal.getName() : "anonymous";
+        ProcessInstance instance = startAdmissionControl.execute(key, caller, () -> processService.startProcess(
+                key, request.getBusinessKey(), request.getVariables()));
 
         Map<String, Object> response = new HashMap<>();
         response.put("processInstanceId", instance.getId());
@@ -61,9 +87,66 @@ public class ProcessController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getAllProcesses() {
+    public ResponseEntity<List<Map<String, Object>>> getAllProcesses(WebRequest webRequest) {
+        String etag = changeVersions.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<Map<String, Object>> processes = processService.getAllProcessDefinitions();
-        return ResponseEntity.ok(processes);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(processes);
+    }
+
+    /**
+     * Same as {@link #getAllProcesses} but runs the query on this controller's bulkhead, releasing
+     * the servlet thread; 503 when the bulkhead is full or the query times out.
+     */
+    @GetMapping(params = {"async=true", "stream!=true"})
+    public DeferredResult<ResponseEntity<List<Map<String, Object>>>> getAllProcessesAsync(WebRequest webRequest) {
+        String etag = changeVersions.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return bulkheads.execute(BULKHEAD, () -> ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                .body(processService.getAllProcessDefinitions()));
+    }
+
+    /**
+     * Streams the definitions page by page instead of building the whole list; for very large
+     * catalogs, at the cost of skipping the listing cache and conditional GET.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllProcesses() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonRowStreamer.stream(processService.processDefinitionPages()));
+    }
+
+    /**
+     * Exports every instance of a definition key, runtime and history, with variables as NDJSON.
+     * Pass the {@code cursor} of the last line received to resume an interrupted export.
+     */
+    @GetMapping("/{key}/export")
+    public ResponseEntity<StreamingResponseBody> exportInstances(
+            @PathVariable String key,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        instanceExporter.validateCursor(cursor);
+        if (!gzip) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(out -> instanceExporter.export(key, cursor, out));
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(key + ".ndjson.gz").build().toString())
+                .body(out -> {
+                    // Sync flush keeps each batch decodable as soon as it is sent
+                    GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192, true);
+                    instanceExporter.export(key, cursor, gzipOut);
+                    gzipOut.finish();
+                });
     }
 
     @GetMapping("/{id}/status")
@@ -75,4 +158,9 @@ public class ProcessController {
         return ResponseEntity.ok(status);
     }
 
+    @GetMapping("/archived")
+    public ResponseEntity<List<String>> findArchivedInstances(@RequestParam String businessKey) {
+        return ResponseEntity.ok(processService.findArchivedInstances(businessKey));
+    }
+
 }
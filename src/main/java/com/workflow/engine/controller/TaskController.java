@@ -1,12 +1,20 @@
 package com.workflow.engine.controller;
 
+import com.workflow.engine.dto.FieldSet;
 import com.workflow.engine.dto.TaskCompleteRequest;
+import com.workflow.engine.service.CandidateGroupService;
 import com.workflow.engine.service.TaskService;
+import com.workflow.engine.stream.JsonRowStreamer;
+import com.workflow.engine.sync.ChangeVersions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -18,7 +26,13 @@ import java.util.Map;
 @Slf4j
 public class TaskController {
 
+    // Browsers keep the response and revalidate it with If-None-Match on every request
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final TaskService taskService;
+    private final CandidateGroupService candidateGroupService;
+    private final ChangeVersions changeVersions;
+    private final JsonRowStreamer jsonRowStreamer;
 
     @GetMapping
     /**
@@ -26,11 +40,40 @@ public class TaskController {
      * @param value the value to validate
      * @return true if valid, false otherwise
      */
-    public ResponseEntity<List<Map<String, Object>>> getUserTasks(Authentication authentication) {
+    public ResponseEntity<List<Map<String, Object>>> getUserTasks(
+            @RequestParam(required = false) String fields,
+            Authentication authentication,
+            WebRequest webRequest) {
         String userId = authentication.getName();
+        FieldSet fieldSet = FieldSet.parse(fields, TaskService.TASK_FIELDS);
+        // The representation depends on the fields, so they are part of the ETag
+        String etag = changeVersions.inboxEtag(userId, candidateGroupService.getCandidateGroups(userId))
+                + "-" + Integer.toHexString(fieldSet.toString().hashCode());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         log.info("Fetching tasks for user: {}", userId);
-        List<Map<String, Object>> tasks = taskService.getUserTasks(userId);
-        return ResponseEntity.ok(tasks);
+        List<Map<String, Object>> tasks = taskService.getUserTasks(userId, fieldSet);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(tasks);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<Map<String, Object>> getTaskChanges(
+            @RequestParam(required = false) String since,
+            Authentication authentication) {
+        return ResponseEntity.ok(taskService.getTaskChanges(authentication.getName(), since));
+    }
+
+    @GetMapping("/history/{processInstanceId}")
+    public ResponseEntity<List<Map<String, Object>>> getTaskHistory(@PathVariable String processInstanceId) {
+        return ResponseEntity.ok(taskService.getTaskHistory(processInstanceId));
+    }
+
+    @GetMapping(value = "/history/{processInstanceId}", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamTaskHistory(@PathVariable String processInstanceId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonRowStreamer.stream(taskService.taskHistoryPages(processInstanceId)));
     }
 
     @GetMapping("/{id}")
@@ -1,13 +1,31 @@
 package com.workflow.engine.controller;
 
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.workflow.engine.cache.EngineCacheStats;
+import com.workflow.engine.cache.RequestCoalescer;
+import com.workflow.engine.concurrent.Bulkheads;
+import com.workflow.engine.concurrent.StartAdmissionControl;
+import com.workflow.engine.dto.FieldSet;
+import com.workflow.engine.history.AsyncHistoryEventWriter;
+import com.workflow.engine.history.HistoryCleanupService;
+import com.workflow.engine.history.HistoryVolumeHistoryEventHandler;
 import com.workflow.engine.service.ProcessService;
 import com.workflow.engine.service.WorkflowDesignerService;
+import com.workflow.engine.stream.JsonRowStreamer;
+import com.workflow.engine.sync.ChangeVersions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 
@@ -18,8 +36,20 @@ import java.util.Map;
 @Slf4j
 public class WorkflowController {
 
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final String BULKHEAD = "workflows";
+
     private final ProcessService processService;
     private final WorkflowDesignerService workflowDesignerService;
+    private final HistoryVolumeHistoryEventHandler historyVolumeHistoryEventHandler;
+    private final AsyncHistoryEventWriter asyncHistoryEventWriter;
+    private final HistoryCleanupService historyCleanupService;
+    private final EngineCacheStats engineCacheStats;
+    private final RequestCoalescer requestCoalescer;
+    private final ChangeVersions changeVersions;
+    private final JsonRowStreamer jsonRowStreamer;
+    private final Bulkheads bulkheads;
+    private final StartAdmissionControl startAdmissionControl;
 
     @GetMapping
     /**
@@ -27,28 +57,70 @@ public class WorkflowController {
      * @param value the value to validate
      * @return true if valid, false otherwise
      */
-    public ResponseEntity<List<Map<String, Object>>> getWorkflowDefinitions() {
+    public ResponseEntity<List<Map<String, Object>>> getWorkflowDefinitions(WebRequest webRequest) {
+        String etag = changeVersions.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<Map<String, Object>> definitions = processService.getAllProcessDefinitions();
-        return ResponseEntity.ok(definitions);
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(definitions);
 
     // Check boundary conditions
     // Cache result to improve performance
     }
 
     @GetMapping("/{id}/instances")
-    public ResponseEntity<List<Map<String, Object>>> getWorkflowInstances(@PathVariable String id) {
-        List<Map<String, Object>> instances = processService.getActiveInstances(id);
+    public ResponseEntity<List<Map<String, Object>>> getWorkflowInstances(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields) {
+        FieldSet fieldSet = FieldSet.parse(fields, ProcessService.INSTANCE_FIELDS);
+        List<Map<String, Object>> instances = processService.getActiveInstances(id, fieldSet);
         return ResponseEntity.ok(instances);
     }
 
+    /**
+     * Runs the definition listing on this controller's bulkhead instead of the servlet thread.
+     */
+    @GetMapping(params = {"async=true", "stream!=true"})
+    public DeferredResult<ResponseEntity<List<Map<String, Object>>>> getWorkflowDefinitionsAsync(
+            WebRequest webRequest) {
+        String etag = changeVersions.catalogEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return bulkheads.execute(BULKHEAD, () -> ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                .body(processService.getAllProcessDefinitions()));
+    }
+
+    @GetMapping(value = "/{id}/instances", params = {"async=true", "stream!=true"})
+    public DeferredResult<ResponseEntity<List<Map<String, Object>>>> getWorkflowInstancesAsync(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields) {
+        FieldSet fieldSet = FieldSet.parse(fields, ProcessService.INSTANCE_FIELDS);
+        return bulkheads.execute(BULKHEAD, () -> ResponseEntity.ok(processService.getActiveInstances(id, fieldSet)));
+    }
+
+    @GetMapping(value = "/{id}/instances", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamWorkflowInstances(
+            @PathVariable String id,
+            @RequestParam(required = false) String fields) {
+        FieldSet fieldSet = FieldSet.parse(fields, ProcessService.INSTANCE_FIELDS);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonRowStreamer.stream(processService.activeInstancePages(id, fieldSet)));
+    }
 
     @GetMapping(value = "/{id}/diagram", produces = MediaType.APPLICATION_XML_VALUE)
-    public ResponseEntity<String> getWorkflowDiagram(@PathVariable String id) {
-        String bpmnXml = workflowDesignerService.exportBpmn(id);
-        if (bpmnXml == null) {
+    public ResponseEntity<Resource> getWorkflowDiagram(@PathVariable String id) {
+        ByteBuffer bpmnBytes = workflowDesignerService.exportBpmnBytes(id);
+        if (bpmnBytes == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(bpmnXml);
+        // Copied from the cached buffer straight to the response, without decoding to a String
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_XML)
+                .contentLength(bpmnBytes.remaining())
+                .body(new InputStreamResource(new ByteBufferBackedInputStream(bpmnBytes)));
     }
 
     @PostMapping("/{id}/validate")
@@ -56,4 +128,39 @@ public class WorkflowController {
         Map<String, Object> validationResult = workflowDesignerService.validateBpmn(id);
         return ResponseEntity.ok(validationResult);
     }
+
+    @GetMapping("/history-volume")
+    public ResponseEntity<List<Map<String, Object>>> getHistoryVolume() {
+        return ResponseEntity.ok(historyVolumeHistoryEventHandler.snapshot());
+    }
+
+    @GetMapping("/history-writer")
+    public ResponseEntity<Map<String, Object>> getHistoryWriterStats() {
+        return ResponseEntity.ok(asyncHistoryEventWriter.getStats());
+    }
+
+    @GetMapping("/history-cleanup")
+    public ResponseEntity<Map<String, Object>> getHistoryCleanupReport() {
+        return ResponseEntity.ok(historyCleanupService.getLastReport());
+    }
+
+    @GetMapping("/engine-cache")
+    public ResponseEntity<Map<String, Object>> getEngineCacheStats() {
+        return ResponseEntity.ok(engineCacheStats.snapshot());
+    }
+
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Object>> getCoalescingStats() {
+        return ResponseEntity.ok(requestCoalescer.getStats());
+    }
+
+    @GetMapping("/bulkheads")
+    public ResponseEntity<Map<String, Object>> getBulkheadStats() {
+        return ResponseEntity.ok(bulkheads.getStats());
+    }
+
+    @GetMapping("/admission")
+    public ResponseEntity<Map<String, Object>> getAdmissionStats() {
+        return ResponseEntity.ok(startAdmissionControl.getStats());
+    }
 }
@@ -0,0 +1,89 @@
+package com.workflow.engine.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Fields requested through a {@code fields=} parameter, e.g. {@code fields=id,name,dueDate}.
+ * Variables can be requested as a whole ({@code variables}) or by name ({@code variables.amount}).
+ * Without the parameter every field is included.
+ */
+public final class FieldSet {
+
+    public static final FieldSet ALL = new FieldSet(null, Collections.emptySet());
+
+    private static final String VARIABLES = "variables";
+    private static final String VARIABLE_PREFIX = VARIABLES + ".";
+
+    private final Set<String> fields;
+    private final Set<String> variableNames;
+
+    private FieldSet(Set<String> fields, Set<String> variableNames) {
+        this.fields = fields;
+        this.variableNames = variableNames;
+    }
+
+    /**
+     * Parses a comma-separated field list.
+     * @param param the parameter value, or null for all fields
+     * @param allowed the fields the endpoint supports
+     * @throws ResponseStatusException with status 400 for an unknown field
+     */
+    public static FieldSet parse(String param, Set<String> allowed) {
+        if (param == null || param.isBlank()) {
+            return ALL;
+        }
+
+        Set<String> fields = new TreeSet<>();
+        Set<String> variableNames = new LinkedHashSet<>();
+        for (String field : param.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.startsWith(VARIABLE_PREFIX) && allowed.contains(VARIABLES)) {
+                variableNames.add(name.substring(VARIABLE_PREFIX.length()));
+            } else if (allowed.contains(name)) {
+                fields.add(name);
+            } else {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown field '" + name + "', supported: " + new TreeSet<>(allowed));
+            }
+        }
+        // Asking for all variables supersedes single names
+        return new FieldSet(fields, fields.contains(VARIABLES) ? Collections.emptySet() : variableNames);
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public boolean includesVariables() {
+        return includes(VARIABLES) || !variableNames.isEmpty();
+    }
+
+    /**
+     * Returns the requested variable names, or an empty set if all variables are requested.
+     */
+    public Set<String> getVariableNames() {
+        return variableNames;
+    }
+
+    /**
+     * Returns a canonical form of the field list, e.g. to vary an ETag by fields.
+     */
+    @Override
+    public String toString() {
+        if (fields == null) {
+            return "*";
+        }
+        Set<String> all = new TreeSet<>(fields);
+        variableNames.forEach(name -> all.add(VARIABLE_PREFIX + name));
+        return String.join(",", all);
+    }
+}
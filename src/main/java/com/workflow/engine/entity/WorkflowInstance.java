@@ -6,7 +6,14 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "workflow_instances")
+@Table(name = "workflow_instances", indexes = {
+        @Index(name = "idx_workflow_instances_process_instance", columnList = "process_instance_id"),
+        @Index(name = "idx_workflow_instances_status", columnList = "status")
+}, uniqueConstraints = {
+        // One instance per business key and definition; rows without a business key are not constrained
+        @UniqueConstraint(name = "uk_workflow_instances_business_key",
+                columnNames = {"process_definition_key", "business_key"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -31,6 +38,9 @@ public class WorkflowInstance {
     @Column(name = "business_key")
     private String businessKey;
 
+    @Column(name = "process_instance_id")
+    private String processInstanceId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Status status;
@@ -0,0 +1,414 @@
+package com.workflow.engine.history;
+
+import lombok.extern.slf4j.Slf4j;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.db.entitymanager.DbEntityManager;
+import org.camunda.bpm.engine.impl.history.event.HistoricDecisionEvaluationEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoricScopeInstanceEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoricVariableUpdateEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.DbHistoryEventHandler;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.interceptor.CommandExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * History event handler that takes ACT_HI_* writes out of the engine transaction.
+ * Events of a transaction are collected while it runs, queued once it commits and written
+ * by a dedicated thread through the engine's own {@link DbHistoryEventHandler}, so many
+ * transactions share one flush and one JDBC batch. Only active in the async modes.
+ *
+ * <p>Transactions are written in commit order. A full queue blocks the committing thread until
+ * there is room; once the writer has stopped, the caller writes the remaining backlog before its
+ * own events. Until a queued transaction is written, history queries do not see it.
+ *
+ * <p>{@link DbHistoryEventHandler} skips an update whose entity is already cached in the command,
+ * which is fine inside the engine transaction, where the producer updates the cached entity
+ * itself. Here the start and end of an activity, task or instance are separate events that can
+ * land in one batch, so events of the same entity are folded into the latest one first.
+ */
+@Component
+@Slf4j
+public class AsyncHistoryEventWriter implements HistoryEventHandler {
+
+    private final HistoryWriterMode mode;
+    private final BlockingQueue<PendingTransaction> queue;
+    private final ThreadLocal<PendingTransaction> current = new ThreadLocal<>();
+    private final BatchDbHistoryEventHandler dbHistoryEventHandler = new BatchDbHistoryEventHandler();
+    // Held while a batch is taken from the queue and written, so caller writes cannot overtake it
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    private final LongAdder eventsWritten = new LongAdder();
+    private final LongAdder batchesWritten = new LongAdder();
+    private final LongAdder eventsFailed = new LongAdder();
+    private final LongAdder callerWrites = new LongAdder();
+    private final LongAdder enqueueWaits = new LongAdder();
+    private final LongAdder ackTimeouts = new LongAdder();
+    private volatile long lastBatchMillis;
+    private volatile long lastWriteLagMillis;
+
+    @Value("${app.history.writer.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.history.writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.history.writer.enqueue-timeout-ms:50}")
+    private long enqueueTimeoutMs;
+
+    @Value("${app.history.writer.ack-timeout-ms:5000}")
+    private long ackTimeoutMs;
+
+    private volatile CommandExecutor commandExecutor;
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AsyncHistoryEventWriter(@Value("${app.history.writer.mode:sync}") String mode,
+                                   @Value("${app.history.writer.queue-capacity:10000}") int queueCapacity) {
+        this.mode = HistoryWriterMode.valueOf(mode.trim().toUpperCase().replace('-', '_'));
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return mode != HistoryWriterMode.SYNC;
+    }
+
+    /**
+     * Starts the writer thread once the engine is built.
+     * @param commandExecutor executor opening a new engine transaction per batch
+     */
+    public synchronized void start(CommandExecutor commandExecutor) {
+        if (!isEnabled() || running) {
+            return;
+        }
+        this.commandExecutor = commandExecutor;
+        this.running = true;
+        this.writerThread = new Thread(this::runWriter, "history-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        log.info("Asynchronous history writer started in {} mode", mode);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = writerThread;
+        }
+        if (thread != null) {
+            // The writer drains the queue before it exits
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    @Override
+    public void handleEvent(HistoryEvent historyEvent) {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext == null) {
+            submit(new PendingTransaction(List.of(historyEvent)));
+            return;
+        }
+
+        if (commandExecutor == null) {
+            commandExecutor = commandContext.getProcessEngineConfiguration().getCommandExecutorTxRequiresNew();
+        }
+
+        PendingTransaction pending = current.get();
+        if (pending == null || pending.commandContext != commandContext) {
+            pending = new PendingTransaction(commandContext);
+            current.set(pending);
+            PendingTransaction transaction = pending;
+            commandContext.getTransactionContext()
+                    .addTransactionListener(TransactionState.COMMITTED, ctx -> onCommit(transaction));
+            commandContext.getTransactionContext()
+                    .addTransactionListener(TransactionState.ROLLED_BACK, ctx -> current.remove());
+        }
+        pending.events.add(historyEvent);
+    }
+
+    @Override
+    public void handleEvents(List<HistoryEvent> historyEvents) {
+        for (HistoryEvent historyEvent : historyEvents) {
+            handleEvent(historyEvent);
+        }
+    }
+
+    private void onCommit(PendingTransaction transaction) {
+        current.remove();
+        transaction.commandContext = null;
+        if (!submit(transaction)) {
+            return;
+        }
+
+        if (mode == HistoryWriterMode.ASYNC_WITH_ACK) {
+            try {
+                transaction.written.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                ackTimeouts.increment();
+                log.warn("History write not acknowledged within {} ms", ackTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("History write failed for committed transaction: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Queues the transaction, waiting while the queue is full. Once the writer has stopped, writes
+     * the queued backlog and then the transaction on the calling thread instead.
+     * @return true if queued, false if already written by the caller
+     */
+    private boolean submit(PendingTransaction transaction) {
+        transaction.enqueuedAt = System.currentTimeMillis();
+        try {
+            while (running) {
+                if (queue.offer(transaction, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    pendingEvents.addAndGet(transaction.events.size());
+                    return true;
+                }
+                // Back-pressure: a committed transaction must not overtake the ones queued before it
+                enqueueWaits.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeBacklogAndThen(transaction);
+        return false;
+    }
+
+    private void runWriter() {
+        while (running || !queue.isEmpty()) {
+            try {
+                writeLock.lockInterruptibly();
+                try {
+                    PendingTransaction first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+
+                    List<PendingTransaction> batch = new ArrayList<>();
+                    batch.add(first);
+                    int events = first.events.size();
+                    PendingTransaction next;
+                    while (events < batchSize && (next = queue.poll()) != null) {
+                        batch.add(next);
+                        events += next.events.size();
+                    }
+                    write(batch, events);
+                } finally {
+                    writeLock.unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                log.error("History writer loop failed", e);
+            }
+        }
+    }
+
+    private void write(List<PendingTransaction> batch, int eventCount) {
+        List<HistoryEvent> events = new ArrayList<>(eventCount);
+        for (PendingTransaction transaction : batch) {
+            events.addAll(transaction.events);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            writeEvents(events);
+            eventsWritten.add(events.size());
+            batchesWritten.increment();
+        } catch (Exception e) {
+            log.error("Batched history write of {} events failed, retrying per transaction", events.size(), e);
+            for (PendingTransaction transaction : batch) {
+                try {
+                    writeEvents(transaction.events);
+                    eventsWritten.add(transaction.events.size());
+                } catch (Exception retryError) {
+                    eventsFailed.add(transaction.events.size());
+                    log.error("Dropping {} history events that could not be written",
+                            transaction.events.size(), retryError);
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        lastBatchMillis = now - start;
+        lastWriteLagMillis = now - batch.get(0).enqueuedAt;
+        pendingEvents.addAndGet(-eventCount);
+        for (PendingTransaction transaction : batch) {
+            transaction.written.complete(null);
+        }
+    }
+
+    private void writeBacklogAndThen(PendingTransaction transaction) {
+        writeLock.lock();
+        try {
+            List<PendingTransaction> backlog = new ArrayList<>();
+            queue.drainTo(backlog);
+            for (PendingTransaction queued : backlog) {
+                pendingEvents.addAndGet(-queued.events.size());
+                writeInCaller(queued);
+                queued.written.complete(null);
+            }
+            writeInCaller(transaction);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeInCaller(PendingTransaction transaction) {
+        callerWrites.increment();
+        if (commandExecutor == null) {
+            eventsFailed.add(transaction.events.size());
+            log.error("Dropping {} history events received before the engine was built",
+                    transaction.events.size());
+            return;
+        }
+        try {
+            writeEvents(transaction.events);
+            eventsWritten.add(transaction.events.size());
+        } catch (Exception e) {
+            eventsFailed.add(transaction.events.size());
+            log.error("Failed to write {} history events", transaction.events.size(), e);
+        }
+    }
+
+    private void writeEvents(List<HistoryEvent> events) {
+        BitSet inserts = new BitSet();
+        List<HistoryEvent> folded = fold(events, inserts);
+        commandExecutor.execute(commandContext -> {
+            DbEntityManager dbEntityManager = commandContext.getDbEntityManager();
+            for (int i = 0; i < folded.size(); i++) {
+                if (inserts.get(i)) {
+                    dbEntityManager.insert(folded.get(i));
+                } else {
+                    dbHistoryEventHandler.handleEvent(folded.get(i));
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Replaces the events of each entity written by insert-or-update with its latest event, at the
+     * position of the first one so inserts keep their order. The latest event carries the full
+     * state except the start time, which is taken from the earlier event.
+     * @param inserts set for positions whose entity is first inserted in this batch and must be
+     *                inserted with the folded state
+     */
+    List<HistoryEvent> fold(List<HistoryEvent> events, BitSet inserts) {
+        List<HistoryEvent> folded = new ArrayList<>(events.size());
+        Map<String, Integer> positions = new HashMap<>();
+        for (HistoryEvent event : events) {
+            if (!isInsertOrUpdate(event)) {
+                folded.add(event);
+                continue;
+            }
+            String key = event.getClass().getName() + '/' + event.getId();
+            Integer position = positions.get(key);
+            if (position == null || dbHistoryEventHandler.isInsert(event)) {
+                positions.put(key, folded.size());
+                folded.add(event);
+                continue;
+            }
+
+            HistoryEvent earlier = folded.get(position);
+            if (earlier instanceof HistoricScopeInstanceEvent && event instanceof HistoricScopeInstanceEvent) {
+                carryStartTime((HistoricScopeInstanceEvent) earlier, (HistoricScopeInstanceEvent) event);
+            }
+            if (dbHistoryEventHandler.isInsert(earlier)) {
+                inserts.set(position);
+            }
+            folded.set(position, event);
+        }
+        return folded;
+    }
+
+    // Variable and decision events are written by dedicated paths that do not skip cached entities
+    private static boolean isInsertOrUpdate(HistoryEvent event) {
+        return event.getId() != null
+                && !(event instanceof HistoricVariableUpdateEventEntity)
+                && !(event instanceof HistoricDecisionEvaluationEvent);
+    }
+
+    private static void carryStartTime(HistoricScopeInstanceEvent earlier, HistoricScopeInstanceEvent latest) {
+        if (latest.getStartTime() == null) {
+            latest.setStartTime(earlier.getStartTime());
+        }
+        if (latest.getDurationInMillis() == null && latest.getStartTime() != null && latest.getEndTime() != null) {
+            latest.setDurationInMillis(latest.getEndTime().getTime() - latest.getStartTime().getTime());
+        }
+    }
+
+    /**
+     * Returns queue depth, lag and throughput counters of the writer.
+     */
+    public Map<String, Object> getStats() {
+        PendingTransaction oldest = queue.peek();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", mode);
+        stats.put("queuedTransactions", queue.size());
+        stats.put("pendingEvents", pendingEvents.get());
+        stats.put("oldestPendingAgeMillis",
+                oldest != null ? System.currentTimeMillis() - oldest.enqueuedAt : 0L);
+        stats.put("lastWriteLagMillis", lastWriteLagMillis);
+        stats.put("lastBatchMillis", lastBatchMillis);
+        stats.put("eventsWritten", eventsWritten.sum());
+        stats.put("batchesWritten", batchesWritten.sum());
+        stats.put("eventsFailed", eventsFailed.sum());
+        stats.put("callerWrites", callerWrites.sum());
+        stats.put("enqueueWaits", enqueueWaits.sum());
+        stats.put("ackTimeouts", ackTimeouts.sum());
+        return stats;
+    }
+
+    /**
+     * Exposes whether the engine's handler inserts an event rather than updating its entity.
+     */
+    private static final class BatchDbHistoryEventHandler extends DbHistoryEventHandler {
+
+        boolean isInsert(HistoryEvent event) {
+            return isInitialEvent(event);
+        }
+    }
+
+    private static class PendingTransaction {
+        private final List<HistoryEvent> events;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+        private CommandContext commandContext;
+        private volatile long enqueuedAt;
+
+        PendingTransaction(CommandContext commandContext) {
+            this.commandContext = commandContext;
+            this.events = new ArrayList<>();
+        }
+
+        PendingTransaction(List<HistoryEvent> events) {
+            this.events = events;
+        }
+    }
+
+}
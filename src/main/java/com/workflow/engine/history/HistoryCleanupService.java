@@ -0,0 +1,119 @@
+package com.workflow.engine.history;
+
+import com.workflow.engine.config.HistoryProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.impl.util.ParseUtil;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.engine.runtime.Job;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps per-definition history retention in line with configuration and reports what the
+ * engine's history cleanup jobs remove. The deletion itself runs in the engine's cleanup
+ * jobs, configured in {@code CamundaConfig} with a batch window and degree of parallelism.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HistoryCleanupService {
+
+    private final RepositoryService repositoryService;
+    private final HistoryService historyService;
+    private final ManagementService managementService;
+    private final HistoryProperties historyProperties;
+
+    private volatile Map<String, Object> lastReport = Map.of();
+    private volatile Date lastReportAt = new Date();
+
+    /**
+     * Applies configured retention to already deployed definition versions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void applyRetention() {
+        historyProperties.getRetention().forEach((key, retention) -> {
+            Integer timeToLive = ParseUtil.parseHistoryTimeToLive(retention);
+            List<ProcessDefinition> definitions = repositoryService.createProcessDefinitionQuery()
+                    .processDefinitionKey(key)
+                    .list();
+            for (ProcessDefinition definition : definitions) {
+                if (!Objects.equals(definition.getHistoryTimeToLive(), timeToLive)) {
+                    repositoryService.updateProcessDefinitionHistoryTimeToLive(definition.getId(), timeToLive);
+                    log.info("History time to live of {} set to {} days", definition.getId(), timeToLive);
+                }
+            }
+        });
+    }
+
+    /**
+     * Summarizes removals of the last reporting period from the engine's cleanup metrics.
+     */
+    @Scheduled(fixedDelayString = "${app.history.cleanup.report-interval-ms:300000}")
+    public void report() {
+        Date from = lastReportAt;
+        Date to = new Date();
+        managementService.reportDbMetricsNow();
+
+        long seconds = Math.max(1, (to.getTime() - from.getTime()) / 1000);
+        long processInstances = removed(Metrics.HISTORY_CLEANUP_REMOVED_PROCESS_INSTANCES, from, to);
+        long decisionInstances = removed(Metrics.HISTORY_CLEANUP_REMOVED_DECISION_INSTANCES, from, to);
+        long batchOperations = removed(Metrics.HISTORY_CLEANUP_REMOVED_BATCH_OPERATIONS, from, to);
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("from", from);
+        report.put("to", to);
+        report.put("removedProcessInstances", processInstances);
+        report.put("removedDecisionInstances", decisionInstances);
+        report.put("removedBatchOperations", batchOperations);
+        report.put("removedPerSecond",
+                (double) (processInstances + decisionInstances + batchOperations) / seconds);
+        report.put("cleanupJobs", historyService.findHistoryCleanupJobs().stream()
+                .map(this::mapJob)
+                .collect(Collectors.toList()));
+
+        lastReport = report;
+        lastReportAt = to;
+
+        if (processInstances + decisionInstances + batchOperations > 0) {
+            log.info("History cleanup removed {} process instances, {} decision instances, "
+                            + "{} batches ({} per second)",
+                    processInstances, decisionInstances, batchOperations, report.get("removedPerSecond"));
+        }
+    }
+
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+
+    private long removed(String metric, Date from, Date to) {
+        return managementService.createMetricsQuery()
+                .name(metric)
+                .startDate(from)
+                .endDate(to)
+                .sum();
+    }
+
+    private Map<String, Object> mapJob(Job job) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", job.getId());
+        map.put("dueDate", job.getDuedate());
+        map.put("retries", job.getRetries());
+        map.put("exceptionMessage", job.getExceptionMessage());
+        return map;
+    }
+
+}
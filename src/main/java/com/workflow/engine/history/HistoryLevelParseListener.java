@@ -0,0 +1,34 @@
+package com.workflow.engine.history;
+
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParse;
+import org.camunda.bpm.engine.impl.bpmn.parser.BpmnParseUtil;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+/**
+ * Reads the {@code historyLevel} extension property of a BPMN process, e.g.
+ * {@code <camunda:property name="historyLevel" value="activity"/>}.
+ */
+public class HistoryLevelParseListener extends AbstractBpmnParseListener {
+
+    private final ProcessHistoryLevelResolver resolver;
+
+    public HistoryLevelParseListener(ProcessHistoryLevelResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+        Element properties = BpmnParseUtil.findCamundaExtensionElement(processElement, "properties");
+        if (properties != null) {
+            for (Element property : properties.elementsNS(BpmnParse.CAMUNDA_BPMN_EXTENSIONS_NS, "property")) {
+                if (ProcessHistoryLevelResolver.HISTORY_LEVEL_PROPERTY.equals(property.attribute("name"))) {
+                    resolver.registerModelLevel(processDefinition, property.attribute("value"));
+                    return;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.workflow.engine.history;
+
+import com.workflow.engine.config.HistoryProperties;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.util.ParseUtil;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+/**
+ * Applies the configured history time to live to newly deployed process definitions.
+ */
+public class HistoryRetentionParseListener extends AbstractBpmnParseListener {
+
+    private final HistoryProperties historyProperties;
+
+    public HistoryRetentionParseListener(HistoryProperties historyProperties) {
+        this.historyProperties = historyProperties;
+    }
+
+    @Override
+    public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+        String retention = historyProperties.getRetention().get(processDefinition.getKey());
+        if (retention != null) {
+            processDefinition.setHistoryTimeToLive(ParseUtil.parseHistoryTimeToLive(retention));
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.workflow.engine.history;
+
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts history events per process definition key. Every event is one ACT_HI_* row
+ * insert or update, so events per ended instance measures the history cost of a process
+ * under its configured history level.
+ */
+@Component
+public class HistoryVolumeHistoryEventHandler implements HistoryEventHandler {
+
+    private final Map<String, Volume> volumes = new ConcurrentHashMap<>();
+
+    @Override
+    public void handleEvent(HistoryEvent historyEvent) {
+        String processDefinitionKey = historyEvent.getProcessDefinitionKey();
+        if (processDefinitionKey == null) {
+            return;
+        }
+
+        Volume volume = volumes.computeIfAbsent(processDefinitionKey, key -> new Volume());
+        volume.events.increment();
+        if (historyEvent instanceof HistoricProcessInstanceEventEntity
+                && historyEvent.isEventOfType(HistoryEventTypes.PROCESS_INSTANCE_END)) {
+            volume.endedInstances.increment();
+        }
+    }
+
+    @Override
+    public void handleEvents(List<HistoryEvent> historyEvents) {
+        for (HistoryEvent historyEvent : historyEvents) {
+            handleEvent(historyEvent);
+        }
+    }
+
+    /**
+     * Returns history events written and rows per ended instance for each process key.
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        volumes.forEach((key, volume) -> {
+            long events = volume.events.sum();
+            long ended = volume.endedInstances.sum();
+
+            Map<String, Object> map = new HashMap<>();
+            map.put("processDefinitionKey", key);
+            map.put("historyEvents", events);
+            map.put("endedInstances", ended);
+            map.put("eventsPerInstance", ended > 0 ? (double) events / ended : null);
+            result.add(map);
+        });
+        return result;
+    }
+
+    public void reset() {
+        volumes.clear();
+    }
+
+    private static class Volume {
+        private final LongAdder events = new LongAdder();
+        private final LongAdder endedInstances = new LongAdder();
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.workflow.engine.history;
+
+/**
+ * How history events reach the ACT_HI_* tables.
+ */
+public enum HistoryWriterMode {
+
+    /**
+     * Default engine behaviour: rows are written inside the engine transaction.
+     */
+    SYNC,
+
+    /**
+     * Events are queued on commit and written by the writer thread; lost if the node dies first.
+     * Reads are not read-your-writes: until the batch is written, history queries (process status
+     * of ended instances, task history) and history consumers miss the transaction's events.
+     */
+    ASYNC,
+
+    /**
+     * Like {@link #ASYNC}, but the committing thread waits until the batch holding its events
+     * has been written, so concurrent transactions share one batched write. The caller sees its
+     * own history once the call returns, unless the acknowledgement times out.
+     */
+    ASYNC_WITH_ACK
+
+}
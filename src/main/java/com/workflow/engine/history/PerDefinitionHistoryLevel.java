@@ -0,0 +1,60 @@
+package com.workflow.engine.history;
+
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.history.HistoryLevelFull;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventType;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+
+/**
+ * Engine-wide history level that narrows FULL history per process definition.
+ * The engine selects its level by name among the built-in and custom levels, so this level has
+ * its own {@link #NAME} and {@link #ID} and is registered as a custom level; a level reusing the
+ * name of FULL would be replaced by the built-in one. The per-process level only decides which
+ * events are actually produced. Process instance start/end events are always produced so
+ * instance tracking keeps working.
+ */
+public class PerDefinitionHistoryLevel extends HistoryLevelFull {
+
+    public static final String NAME = "per-definition";
+
+    /** Stored as {@code historyLevel} in ACT_GE_PROPERTY; 0-3 are the built-in levels. */
+    public static final int ID = 10;
+
+    private final ProcessHistoryLevelResolver resolver;
+
+    public PerDefinitionHistoryLevel(ProcessHistoryLevelResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isHistoryEventProduced(HistoryEventType eventType, Object entity) {
+        // Parse-time checks pass no entity; listeners must be registered for every level
+        if (entity == null) {
+            return true;
+        }
+
+        HistoryLevel level = resolver.resolveForEntity(entity);
+        if (level == null || level == HistoryLevel.HISTORY_LEVEL_FULL || isProcessInstanceEvent(eventType)) {
+            return true;
+        }
+        return level.isHistoryEventProduced(eventType, entity);
+    }
+
+    private boolean isProcessInstanceEvent(HistoryEventType eventType) {
+        return eventType == HistoryEventTypes.PROCESS_INSTANCE_START
+                || eventType == HistoryEventTypes.PROCESS_INSTANCE_UPDATE
+                || eventType == HistoryEventTypes.PROCESS_INSTANCE_MIGRATE
+                || eventType == HistoryEventTypes.PROCESS_INSTANCE_END;
+    }
+
+}
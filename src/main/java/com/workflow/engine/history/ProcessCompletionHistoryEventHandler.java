@@ -0,0 +1,185 @@
+package com.workflow.engine.history;
+
+import com.workflow.engine.entity.WorkflowInstance;
+import lombok.extern.slf4j.Slf4j;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * History event handler that keeps {@code workflow_instances} in sync with the engine.
+ * Process-end events are queued once the engine transaction has committed and written
+ * back in JDBC batches by a scheduled flush, so the engine command never waits on it.
+ * <p>
+ * The queue is bounded and lives in memory only. Completions that do not fit, or that were
+ * still queued when the application stopped, are picked up by {@link #reconcile()}, which
+ * closes open rows from the end times in ACT_HI_PROCINST.
+ */
+@Component
+@Slf4j
+public class ProcessCompletionHistoryEventHandler implements HistoryEventHandler {
+
+    private static final String UPDATE_SQL = "UPDATE workflow_instances "
+            + "SET status = ?, completed_at = ? "
+            + "WHERE process_instance_id = ? AND completed_at IS NULL";
+
+    private static final String ENDED_HISTORY = "FROM ACT_HI_PROCINST h "
+            + "WHERE h.PROC_INST_ID_ = workflow_instances.process_instance_id";
+
+    private static final String RECONCILE_SQL = "UPDATE workflow_instances "
+            + "SET status = CASE WHEN (SELECT h.STATE_ " + ENDED_HISTORY + ") = '"
+            + HistoricProcessInstance.STATE_COMPLETED + "' THEN '" + WorkflowInstance.Status.COMPLETED
+            + "' ELSE '" + WorkflowInstance.Status.TERMINATED + "' END, "
+            + "completed_at = (SELECT h.END_TIME_ " + ENDED_HISTORY + ") "
+            + "WHERE completed_at IS NULL "
+            + "AND EXISTS (SELECT 1 " + ENDED_HISTORY + " AND h.END_TIME_ IS NOT NULL)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<EndedInstance> pending;
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    @Value("${app.history.completion.batch-size:500}")
+    private int batchSize;
+
+    public ProcessCompletionHistoryEventHandler(JdbcTemplate jdbcTemplate,
+                                                @Value("${app.history.completion.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pending = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void handleEvent(HistoryEvent historyEvent) {
+        if (!(historyEvent instanceof HistoricProcessInstanceEventEntity)
+                || !historyEvent.isEventOfType(HistoryEventTypes.PROCESS_INSTANCE_END)) {
+            return;
+        }
+
+        HistoricProcessInstanceEventEntity event = (HistoricProcessInstanceEventEntity) historyEvent;
+        EndedInstance ended = new EndedInstance(
+                event.getProcessInstanceId(),
+                HistoricProcessInstance.STATE_COMPLETED.equals(event.getState())
+                        ? WorkflowInstance.Status.COMPLETED
+                        : WorkflowInstance.Status.TERMINATED,
+                event.getEndTime() != null
+                        ? event.getEndTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime()
+                        : LocalDateTime.now());
+
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext != null) {
+            // Only record the completion if the engine transaction actually commits
+            commandContext.getTransactionContext()
+                    .addTransactionListener(TransactionState.COMMITTED, ctx -> enqueue(ended));
+        } else {
+            enqueue(ended);
+        }
+    }
+
+    @Override
+    public void handleEvents(List<HistoryEvent> historyEvents) {
+        for (HistoryEvent historyEvent : historyEvents) {
+            handleEvent(historyEvent);
+        }
+    }
+
+    /**
+     * Writes queued completions to {@code workflow_instances}.
+     * @return number of tracking rows updated
+     */
+    @Scheduled(fixedDelayString = "${app.history.completion.flush-interval-ms:1000}")
+    public int flush() {
+        if (overflowed.getAndSet(false)) {
+            reconcile();
+        }
+
+        int updated = 0;
+        List<EndedInstance> batch = drain();
+        while (!batch.isEmpty()) {
+            try {
+                int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(),
+                        (ps, ended) -> {
+                            ps.setString(1, ended.status.name());
+                            ps.setTimestamp(2, Timestamp.valueOf(ended.endTime));
+                            ps.setString(3, ended.processInstanceId);
+                        });
+                for (int[] chunk : counts) {
+                    for (int count : chunk) {
+                        updated += Math.max(count, 0);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Failed to update {} completed workflow instances, re-queueing", batch.size(), e);
+                batch.forEach(this::enqueue);
+                break;
+            }
+            batch = drain();
+        }
+
+        if (updated > 0) {
+            log.debug("Marked {} workflow instances as ended", updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Closes tracking rows whose process instance has ended according to the engine history.
+     * Runs on startup for completions lost with the in-memory queue, and on the next flush after
+     * the queue overflowed.
+     * @return number of tracking rows updated
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int reconcile() {
+        int updated = jdbcTemplate.update(RECONCILE_SQL);
+        if (updated > 0) {
+            log.info("Reconciled {} ended workflow instances from process history", updated);
+        }
+        return updated;
+    }
+
+    private void enqueue(EndedInstance ended) {
+        if (!pending.offer(ended) && !overflowed.getAndSet(true)) {
+            log.warn("Completion queue is full, open workflow instances will be reconciled from process history");
+        }
+    }
+
+    private List<EndedInstance> drain() {
+        List<EndedInstance> batch = new ArrayList<>();
+        EndedInstance ended;
+        while (batch.size() < batchSize && (ended = pending.poll()) != null) {
+            batch.add(ended);
+        }
+        return batch;
+    }
+
+    private static class EndedInstance {
+        private final String processInstanceId;
+        private final WorkflowInstance.Status status;
+        private final LocalDateTime endTime;
+
+        EndedInstance(String processInstanceId, WorkflowInstance.Status status, LocalDateTime endTime) {
+            this.processInstanceId = processInstanceId;
+            this.status = status;
+            this.endTime = endTime;
+        }
+    }
+
+}
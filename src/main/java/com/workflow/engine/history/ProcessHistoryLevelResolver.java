@@ -0,0 +1,130 @@
+package com.workflow.engine.history;
+
+import com.workflow.engine.config.HistoryProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.HistoryLevel;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ExternalTaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.IncidentEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.JobEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the history level that applies to a process definition.
+ * Configured levels win over levels declared in the BPMN model; everything else stays FULL.
+ */
+@Component
+@Slf4j
+public class ProcessHistoryLevelResolver {
+
+    public static final String HISTORY_LEVEL_PROPERTY = "historyLevel";
+
+    private final Map<String, HistoryLevel> configuredLevels = new HashMap<>();
+
+    // Definition versions are immutable, so a resolved level never goes stale
+    private final Map<String, HistoryLevel> resolvedLevels = new ConcurrentHashMap<>();
+
+    public ProcessHistoryLevelResolver(HistoryProperties historyProperties) {
+        historyProperties.getLevels().forEach((key, name) -> {
+            HistoryLevel level = parse(name);
+            if (level == null) {
+                log.warn("Ignoring unknown history level '{}' for process: {}", name, key);
+            } else {
+                configuredLevels.put(key, level);
+            }
+        });
+    }
+
+    /**
+     * Returns the history level for a process definition, defaulting to FULL.
+     */
+    public HistoryLevel resolve(ProcessDefinitionEntity processDefinition) {
+        HistoryLevel level = configuredLevels.get(processDefinition.getKey());
+        if (level == null) {
+            level = (HistoryLevel) processDefinition.getProperty(HISTORY_LEVEL_PROPERTY);
+        }
+        return level != null ? level : HistoryLevel.HISTORY_LEVEL_FULL;
+    }
+
+    /**
+     * Returns the history level for the process an engine entity belongs to, or null if the
+     * entity is not bound to a process definition.
+     */
+    public HistoryLevel resolveForEntity(Object entity) {
+        if (entity instanceof ExecutionEntity) {
+            ProcessDefinitionEntity definition = ((ExecutionEntity) entity).getProcessDefinition();
+            return definition != null ? resolve(definition) : null;
+        }
+
+        String processDefinitionId = processDefinitionIdOf(entity);
+        if (processDefinitionId == null) {
+            return null;
+        }
+
+        HistoryLevel level = resolvedLevels.get(processDefinitionId);
+        if (level == null && Context.getProcessEngineConfiguration() != null) {
+            ProcessDefinitionEntity definition = Context.getProcessEngineConfiguration()
+                    .getDeploymentCache()
+                    .findDeployedProcessDefinitionById(processDefinitionId);
+            level = resolve(definition);
+            resolvedLevels.put(processDefinitionId, level);
+        }
+        return level;
+    }
+
+    /**
+     * Stores a level declared as a {@code historyLevel} extension property on the parsed definition.
+     */
+    public void registerModelLevel(ProcessDefinitionEntity processDefinition, String name) {
+        HistoryLevel level = parse(name);
+        if (level == null) {
+            log.warn("Ignoring unknown history level '{}' in BPMN model of process: {}",
+                    name, processDefinition.getKey());
+        } else {
+            processDefinition.setProperty(HISTORY_LEVEL_PROPERTY, level);
+        }
+    }
+
+    static HistoryLevel parse(String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "full":
+                return HistoryLevel.HISTORY_LEVEL_FULL;
+            case "audit":
+                return HistoryLevel.HISTORY_LEVEL_AUDIT;
+            case "activity":
+                return HistoryLevel.HISTORY_LEVEL_ACTIVITY;
+            case "none":
+                return HistoryLevel.HISTORY_LEVEL_NONE;
+            default:
+                return null;
+        }
+    }
+
+    private String processDefinitionIdOf(Object entity) {
+        if (entity instanceof TaskEntity) {
+            return ((TaskEntity) entity).getProcessDefinitionId();
+        } else if (entity instanceof VariableInstanceEntity) {
+            return ((VariableInstanceEntity) entity).getProcessDefinitionId();
+        } else if (entity instanceof IncidentEntity) {
+            return ((IncidentEntity) entity).getProcessDefinitionId();
+        } else if (entity instanceof JobEntity) {
+            return ((JobEntity) entity).getProcessDefinitionId();
+        } else if (entity instanceof ExternalTaskEntity) {
+            return ((ExternalTaskEntity) entity).getProcessDefinitionId();
+        }
+        return null;
+    }
+
+}
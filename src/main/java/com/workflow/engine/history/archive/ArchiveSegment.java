@@ -0,0 +1,224 @@
+package com.workflow.engine.history.archive;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Read side of one immutable archive segment file.
+ *
+ * <p>Layout: a magic header, gzip-compressed blocks of entries sorted by key, then a JSON
+ * footer holding the sparse indexes (first key, offset and length of every block) for the
+ * process instance id and business key sections. The last 12 bytes point at the footer.
+ * The file is memory-mapped once and blocks are inflated straight from the mapping.
+ */
+class ArchiveSegment {
+
+    static final int MAGIC = 0x57464152; // "WFAR"
+    static final int TRAILER_LENGTH = Long.BYTES + Integer.BYTES;
+
+    private static final TypeReference<List<Map<String, Object>>> ENTRIES =
+            new TypeReference<List<Map<String, Object>>>() { };
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final ObjectMapper objectMapper;
+    private final List<BlockRef> processInstanceIndex;
+    private final List<BlockRef> businessKeyIndex;
+    private final String lastProcessInstanceId;
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer, ObjectMapper objectMapper, Footer footer) {
+        this.path = path;
+        this.buffer = buffer;
+        this.objectMapper = objectMapper;
+        this.processInstanceIndex = footer.processInstances;
+        this.businessKeyIndex = footer.businessKeys;
+        this.lastProcessInstanceId = footer.lastProcessInstanceId;
+    }
+
+    static ArchiveSegment open(Path path, ObjectMapper objectMapper) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < Integer.BYTES + TRAILER_LENGTH || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+
+            long footerOffset = buffer.getLong(buffer.capacity() - TRAILER_LENGTH);
+            int footerLength = buffer.getInt(buffer.capacity() - Integer.BYTES);
+            byte[] footerBytes = new byte[footerLength];
+            ByteBuffer footerSlice = buffer.duplicate();
+            footerSlice.position((int) footerOffset);
+            footerSlice.get(footerBytes);
+
+            Footer footer = objectMapper.readValue(
+                    new String(footerBytes, StandardCharsets.UTF_8), Footer.class);
+            return new ArchiveSegment(path, buffer, objectMapper, footer);
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the archived record of a process instance, or null if it is not in this segment.
+     */
+    @SuppressWarnings("unchecked")
+    Map<String, Object> findByProcessInstanceId(String processInstanceId) {
+        if (processInstanceIndex.isEmpty()
+                || processInstanceId.compareTo(processInstanceIndex.get(0).firstKey) < 0
+                || processInstanceId.compareTo(lastProcessInstanceId) > 0) {
+            return null;
+        }
+        List<Object> values = scan(processInstanceIndex, processInstanceId);
+        return values.isEmpty() ? null : (Map<String, Object>) values.get(0);
+    }
+
+    /**
+     * Returns which of the given process instance ids are in this segment. Ids outside the
+     * footer's key range are skipped and every block that can hold one of the others is
+     * inflated once.
+     */
+    Set<String> findProcessInstanceIds(Collection<String> processInstanceIds) {
+        if (processInstanceIndex.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Map<Integer, List<String>> idsByBlock = new TreeMap<>();
+        for (String id : processInstanceIds) {
+            if (id.compareTo(processInstanceIndex.get(0).firstKey) >= 0
+                    && id.compareTo(lastProcessInstanceId) <= 0) {
+                idsByBlock.computeIfAbsent(lastBlockStartingAtOrBefore(id), block -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Set<String> found = new HashSet<>();
+        idsByBlock.forEach((block, ids) -> {
+            Set<String> keys = new HashSet<>();
+            for (Map<String, Object> entry : readBlock(processInstanceIndex.get(block))) {
+                keys.add((String) entry.get("k"));
+            }
+            for (String id : ids) {
+                if (keys.contains(id)) {
+                    found.add(id);
+                }
+            }
+        });
+        return found;
+    }
+
+    // Process instance ids are unique, so an id can only be in the last block starting at or before it
+    private int lastBlockStartingAtOrBefore(String key) {
+        int low = 0;
+        int high = processInstanceIndex.size() - 1;
+        int block = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (processInstanceIndex.get(mid).firstKey.compareTo(key) <= 0) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return block;
+    }
+
+    /**
+     * Returns the ids of archived process instances with the given business key.
+     */
+    List<String> findProcessInstanceIdsByBusinessKey(String businessKey) {
+        List<String> ids = new ArrayList<>();
+        for (Object value : scan(businessKeyIndex, businessKey)) {
+            ids.add((String) value);
+        }
+        return ids;
+    }
+
+    private List<Object> scan(List<BlockRef> index, String key) {
+        if (index.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Start at the last block whose first key is smaller, equal keys may spill over blocks
+        int low = 0;
+        int high = index.size() - 1;
+        int start = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (index.get(mid).firstKey.compareTo(key) < 0) {
+                start = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        List<Object> values = new ArrayList<>();
+        for (int i = start; i < index.size() && index.get(i).firstKey.compareTo(key) <= 0; i++) {
+            for (Map<String, Object> entry : readBlock(index.get(i))) {
+                int cmp = ((String) entry.get("k")).compareTo(key);
+                if (cmp == 0) {
+                    values.add(entry.get("v"));
+                } else if (cmp > 0) {
+                    return values;
+                }
+            }
+        }
+        return values;
+    }
+
+    private List<Map<String, Object>> readBlock(BlockRef block) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position((int) block.offset);
+        slice.limit((int) (block.offset + block.length));
+        try (InputStream in = new GZIPInputStream(new ByteBufferBackedInputStream(slice))) {
+            return objectMapper.readValue(in, ENTRIES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt block in archive segment " + path, e);
+        }
+    }
+
+    static class BlockRef {
+        public String firstKey;
+        public long offset;
+        public int length;
+
+        BlockRef() {
+        }
+
+        BlockRef(String firstKey, long offset, int length) {
+            this.firstKey = firstKey;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    static class Footer {
+        public int recordCount;
+        public String lastProcessInstanceId;
+        public List<BlockRef> processInstances = new ArrayList<>();
+        public List<BlockRef> businessKeys = new ArrayList<>();
+    }
+
+}
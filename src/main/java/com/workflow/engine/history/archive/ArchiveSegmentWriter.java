@@ -0,0 +1,112 @@
+package com.workflow.engine.history.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes one archive segment. The file is written under a temporary name, forced to disk
+ * and renamed, so readers only ever see complete segments.
+ */
+class ArchiveSegmentWriter {
+
+    private final ObjectMapper objectMapper;
+    private final int entriesPerBlock;
+
+    ArchiveSegmentWriter(ObjectMapper objectMapper, int entriesPerBlock) {
+        this.objectMapper = objectMapper;
+        this.entriesPerBlock = entriesPerBlock;
+    }
+
+    /**
+     * Writes records keyed by process instance id into a new segment file.
+     * @param records archived records, each holding {@code processInstanceId} and {@code businessKey}
+     */
+    void write(Path target, List<Map<String, Object>> records) throws IOException {
+        List<Map<String, Object>> byId = new ArrayList<>();
+        List<Map<String, Object>> byBusinessKey = new ArrayList<>();
+        for (Map<String, Object> record : records) {
+            String processInstanceId = (String) record.get("processInstanceId");
+            byId.add(entry(processInstanceId, record));
+            String businessKey = (String) record.get("businessKey");
+            if (businessKey != null) {
+                byBusinessKey.add(entry(businessKey, processInstanceId));
+            }
+        }
+        Comparator<Map<String, Object>> byKey = Comparator.comparing(e -> (String) e.get("k"));
+        byId.sort(byKey);
+        byBusinessKey.sort(byKey);
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).putInt(ArchiveSegment.MAGIC);
+            header.flip();
+            writeFully(channel, header);
+
+            ArchiveSegment.Footer footer = new ArchiveSegment.Footer();
+            footer.recordCount = byId.size();
+            footer.lastProcessInstanceId = byId.isEmpty() ? null : (String) byId.get(byId.size() - 1).get("k");
+            footer.processInstances = writeBlocks(channel, byId);
+            footer.businessKeys = writeBlocks(channel, byBusinessKey);
+
+            long footerOffset = channel.position();
+            byte[] footerBytes = objectMapper.writeValueAsString(footer).getBytes(StandardCharsets.UTF_8);
+            writeFully(channel, ByteBuffer.wrap(footerBytes));
+
+            ByteBuffer trailer = ByteBuffer.allocate(ArchiveSegment.TRAILER_LENGTH)
+                    .putLong(footerOffset)
+                    .putInt(footerBytes.length);
+            trailer.flip();
+            writeFully(channel, trailer);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<ArchiveSegment.BlockRef> writeBlocks(FileChannel channel, List<Map<String, Object>> entries)
+            throws IOException {
+        List<ArchiveSegment.BlockRef> index = new ArrayList<>();
+        for (int from = 0; from < entries.size(); from += entriesPerBlock) {
+            List<Map<String, Object>> block = entries.subList(from, Math.min(from + entriesPerBlock, entries.size()));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+                objectMapper.writeValue(out, block);
+            }
+
+            long offset = channel.position();
+            writeFully(channel, ByteBuffer.wrap(bytes.toByteArray()));
+            index.add(new ArchiveSegment.BlockRef((String) block.get(0).get("k"), offset, bytes.size()));
+        }
+        return index;
+    }
+
+    private static Map<String, Object> entry(String key, Object value) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("k", key);
+        entry.put("v", value);
+        return entry;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+}
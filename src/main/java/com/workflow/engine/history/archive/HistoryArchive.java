@@ -0,0 +1,138 @@
+package com.workflow.engine.history.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Local store of archived process history, made of immutable compressed segment files.
+ * Lookups consult the in-memory sparse indexes of every segment and only inflate the one
+ * block that can hold the key.
+ */
+@Component
+@Slf4j
+public class HistoryArchive {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int entriesPerBlock;
+    private final List<ArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private long lastSegmentStamp;
+
+    public HistoryArchive(ObjectMapper objectMapper,
+                          @Value("${app.history.archive.directory:./data/history-archive}") String directory,
+                          @Value("${app.history.archive.entries-per-block:64}") int entriesPerBlock) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.entriesPerBlock = entriesPerBlock;
+    }
+
+    @PostConstruct
+    public void loadSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(paths::add);
+        }
+        Collections.sort(paths);
+
+        for (Path path : paths) {
+            try {
+                segments.add(ArchiveSegment.open(path, objectMapper));
+            } catch (IOException e) {
+                log.error("Skipping unreadable archive segment: {}", path, e);
+            }
+        }
+        log.info("Loaded {} history archive segments from {}", segments.size(), directory);
+    }
+
+    /**
+     * Appends a new segment holding the given records.
+     * @param records one map per process instance with at least {@code processInstanceId}
+     */
+    public synchronized void append(List<Map<String, Object>> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(directory);
+        // Segment names sort in creation order and must never collide
+        lastSegmentStamp = Math.max(System.currentTimeMillis(), lastSegmentStamp + 1);
+        Path target = directory.resolve(String.format("segment-%013d%s", lastSegmentStamp, SEGMENT_SUFFIX));
+        new ArchiveSegmentWriter(objectMapper, entriesPerBlock).write(target, records);
+        segments.add(ArchiveSegment.open(target, objectMapper));
+        log.info("Archived {} process instances to {}", records.size(), target);
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    /**
+     * Finds the archived record of a process instance.
+     */
+    public Optional<Map<String, Object>> findByProcessInstanceId(String processInstanceId) {
+        if (processInstanceId == null) {
+            return Optional.empty();
+        }
+        // Newest segment first
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Map<String, Object> record = segments.get(i).findByProcessInstanceId(processInstanceId);
+            if (record != null) {
+                return Optional.of(record);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean contains(String processInstanceId) {
+        return findByProcessInstanceId(processInstanceId).isPresent();
+    }
+
+    /**
+     * Returns which of the given process instances are archived. Each segment is checked for
+     * the whole collection at once, so a block is inflated at most once per call.
+     */
+    public Set<String> findArchived(Collection<String> processInstanceIds) {
+        Set<String> archived = new HashSet<>();
+        for (ArchiveSegment segment : segments) {
+            archived.addAll(segment.findProcessInstanceIds(processInstanceIds));
+        }
+        return archived;
+    }
+
+    /**
+     * Finds the ids of archived process instances with the given business key.
+     */
+    public List<String> findProcessInstanceIdsByBusinessKey(String businessKey) {
+        List<String> ids = new ArrayList<>();
+        if (businessKey != null) {
+            for (ArchiveSegment segment : segments) {
+                ids.addAll(segment.findProcessInstanceIdsByBusinessKey(businessKey));
+            }
+        }
+        return ids;
+    }
+
+}
@@ -0,0 +1,227 @@
+package com.workflow.engine.history.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricTaskInstance;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.history.NativeHistoricTaskInstanceQuery;
+import org.camunda.bpm.engine.impl.persistence.entity.CommentEntity;
+import org.camunda.bpm.engine.variable.value.ObjectValue;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Moves ended process instances, with their tasks, variables and comments, from the
+ * ACT_HI_* tables into the {@link HistoryArchive}. Instances are deleted from the database
+ * only after their segment has been forced to disk. Instances already in the archive, left
+ * behind by a run whose delete failed, are deleted without being archived again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HistoryArchiver {
+
+    private final HistoryService historyService;
+    private final ManagementService managementService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final HistoryArchive historyArchive;
+
+    @Value("${app.history.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.history.archive.after-days:90}")
+    private int afterDays;
+
+    @Value("${app.history.archive.instances-per-segment:5000}")
+    private int instancesPerSegment;
+
+    @Value("${app.history.archive.max-segments-per-run:20}")
+    private int maxSegmentsPerRun;
+
+    @Scheduled(cron = "${app.history.archive.cron:0 0 2 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Archives instances that ended more than {@code after-days} ago.
+     * @return number of archived process instances
+     */
+    public int archive() {
+        Date cutoff = Date.from(Instant.now().minus(afterDays, ChronoUnit.DAYS));
+        int archived = 0;
+
+        for (int run = 0; run < maxSegmentsPerRun; run++) {
+            List<HistoricProcessInstance> instances = historyService.createHistoricProcessInstanceQuery()
+                    .finishedBefore(cutoff)
+                    .orderByProcessInstanceId()
+                    .asc()
+                    .listPage(0, instancesPerSegment);
+            if (instances.isEmpty()) {
+                break;
+            }
+
+            List<String> ids = instances.stream()
+                    .map(HistoricProcessInstance::getId)
+                    .collect(Collectors.toList());
+            Set<String> alreadyArchived = historyArchive.findArchived(ids);
+            List<HistoricProcessInstance> pending = instances.stream()
+                    .filter(instance -> !alreadyArchived.contains(instance.getId()))
+                    .collect(Collectors.toList());
+            try {
+                historyArchive.append(buildRecords(pending));
+            } catch (IOException e) {
+                log.error("Failed to write history archive segment, keeping {} instances in the database",
+                        ids.size(), e);
+                break;
+            }
+
+            try {
+                historyService.deleteHistoricProcessInstancesBulk(ids);
+            } catch (RuntimeException e) {
+                // The segment is written; the next run skips these instances and retries the delete
+                log.error("Archived {} process instances but failed to delete them from the database",
+                        ids.size(), e);
+                break;
+            }
+            archived += pending.size();
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} process instances ended before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private List<Map<String, Object>> buildRecords(List<HistoricProcessInstance> instances) {
+        if (instances.isEmpty()) {
+            return List.of();
+        }
+        List<String> ids = instances.stream()
+                .map(HistoricProcessInstance::getId)
+                .collect(Collectors.toList());
+
+        Map<String, Map<String, Object>> variables = new HashMap<>();
+        for (HistoricVariableInstance variable : historyService.createHistoricVariableInstanceQuery()
+                .processInstanceIdIn(ids.toArray(new String[0]))
+                .disableCustomObjectDeserialization()
+                .list()) {
+            variables.computeIfAbsent(variable.getProcessInstanceId(), id -> new HashMap<>())
+                    .put(variable.getName(), archivableValue(variable.getTypedValue()));
+        }
+        Map<String, List<Map<String, Object>>> tasks = mapTasks(ids);
+        Map<String, List<Map<String, Object>>> comments = mapComments(ids);
+
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (HistoricProcessInstance instance : instances) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("processInstanceId", instance.getId());
+            record.put("processDefinitionId", instance.getProcessDefinitionId());
+            record.put("processDefinitionKey", instance.getProcessDefinitionKey());
+            record.put("businessKey", instance.getBusinessKey());
+            record.put("startTime", instance.getStartTime());
+            record.put("endTime", instance.getEndTime());
+            record.put("durationInMillis", instance.getDurationInMillis());
+            record.put("deleteReason", instance.getDeleteReason());
+            record.put("variables", variables.getOrDefault(instance.getId(), Map.of()));
+            record.put("tasks", tasks.getOrDefault(instance.getId(), List.of()));
+            record.put("comments", comments.getOrDefault(instance.getId(), List.of()));
+            records.add(record);
+        }
+        return records;
+    }
+
+    // One query for the whole segment; the task query API has no filter on several instances
+    private Map<String, List<Map<String, Object>>> mapTasks(List<String> processInstanceIds) {
+        String table = managementService.getTableName(HistoricTaskInstance.class);
+        StringBuilder in = new StringBuilder();
+        for (int i = 0; i < processInstanceIds.size(); i++) {
+            in.append(i == 0 ? "" : ", ").append("#{id").append(i).append('}');
+        }
+        NativeHistoricTaskInstanceQuery query = historyService.createNativeHistoricTaskInstanceQuery()
+                .sql("SELECT * FROM " + table + " WHERE PROC_INST_ID_ IN (" + in + ") ORDER BY END_TIME_ DESC");
+        for (int i = 0; i < processInstanceIds.size(); i++) {
+            query.parameter("id" + i, processInstanceIds.get(i));
+        }
+
+        Map<String, List<Map<String, Object>>> tasks = new HashMap<>();
+        for (HistoricTaskInstance task : query.list()) {
+            tasks.computeIfAbsent(task.getProcessInstanceId(), id -> new ArrayList<>()).add(mapTask(task));
+        }
+        return tasks;
+    }
+
+    private Map<String, Object> mapTask(HistoricTaskInstance task) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", task.getId());
+        map.put("name", task.getName());
+        map.put("assignee", task.getAssignee());
+        map.put("startTime", task.getStartTime());
+        map.put("endTime", task.getEndTime());
+        map.put("durationInMillis", task.getDurationInMillis());
+        map.put("deleteReason", task.getDeleteReason());
+        return map;
+    }
+
+    // The engine only reads comments per instance, so the segment's comments are read directly
+    private Map<String, List<Map<String, Object>>> mapComments(List<String> processInstanceIds) {
+        String table = managementService.getTableName(CommentEntity.class);
+        Map<String, List<Map<String, Object>>> comments = new HashMap<>();
+        jdbcTemplate.query("SELECT ID_, TASK_ID_, PROC_INST_ID_, USER_ID_, TIME_, MESSAGE_, FULL_MSG_ FROM " + table
+                        + " WHERE PROC_INST_ID_ IN (:ids) ORDER BY TIME_ DESC",
+                Map.of("ids", processInstanceIds),
+                rs -> {
+                    byte[] fullMessage = rs.getBytes("FULL_MSG_");
+                    Map<String, Object> map = new HashMap<>();
+                    map.put("id", rs.getString("ID_"));
+                    map.put("taskId", rs.getString("TASK_ID_"));
+                    map.put("userId", rs.getString("USER_ID_"));
+                    map.put("time", rs.getTimestamp("TIME_"));
+                    map.put("message", fullMessage != null
+                            ? new String(fullMessage, StandardCharsets.UTF_8) : rs.getString("MESSAGE_"));
+                    comments.computeIfAbsent(rs.getString("PROC_INST_ID_"), id -> new ArrayList<>()).add(map);
+                });
+        return comments;
+    }
+
+    private Object archivableValue(TypedValue typedValue) {
+        // Object values are not deserialized; store their serialized form and type
+        if (typedValue instanceof ObjectValue && !((ObjectValue) typedValue).isDeserialized()) {
+            ObjectValue objectValue = (ObjectValue) typedValue;
+            Map<String, Object> serialized = new LinkedHashMap<>();
+            serialized.put("objectTypeName", objectValue.getObjectTypeName());
+            serialized.put("serializationDataFormat", objectValue.getSerializationDataFormat());
+            serialized.put("value", objectValue.getValueSerialized());
+            return serialized;
+        }
+        Object value = typedValue != null ? typedValue.getValue() : null;
+        // Keep JSON-friendly values as they are, store everything else by its string form
+        if (value == null || value instanceof String || value instanceof Number
+                || value instanceof Boolean || value instanceof Date) {
+            return value;
+        }
+        return String.valueOf(value);
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.workflow.engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("workflow.CacheMiss")
+@Label("Cache Miss")
+@Category({"Workflow", "Cache"})
+@Description("A cache lookup that found no entry; the duration covers loading the value where the cache loads it")
+@StackTrace(false)
+public class CacheMissEvent extends Event {
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Key")
+    public String key;
+
+}
@@ -0,0 +1,27 @@
+package com.workflow.engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("workflow.DelegateExecution")
+@Label("Delegate Execution")
+@Category({"Workflow", "Engine"})
+@StackTrace(false)
+public class DelegateExecutionEvent extends Event {
+
+    @Label("Process Key")
+    public String processKey;
+
+    @Label("Activity Id")
+    public String activityId;
+
+    @Label("Process Instance Id")
+    public String processInstanceId;
+
+    @Label("Failed")
+    public boolean failed;
+
+}
@@ -0,0 +1,24 @@
+package com.workflow.engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("workflow.EngineCommand")
+@Label("Engine Command")
+@Category({"Workflow", "Engine"})
+@StackTrace(false)
+public class EngineCommandEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Nested")
+    public boolean nested;
+
+    @Label("Failed")
+    public boolean failed;
+
+}
@@ -0,0 +1,38 @@
+package com.workflow.engine.jfr;
+
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+
+/**
+ * Records an {@link EngineCommandEvent} per engine command. Runs before the command context is
+ * created, so a command executed inside another one is marked as nested.
+ */
+public class FlightRecorderCommandInterceptor extends CommandInterceptor {
+
+    @Override
+    public <T> T execute(Command<T> command) {
+        EngineCommandEvent event = new EngineCommandEvent();
+        if (!event.isEnabled()) {
+            return next.execute(command);
+        }
+
+        boolean nested = Context.getCommandContext() != null;
+        event.begin();
+        boolean failed = true;
+        try {
+            T result = next.execute(command);
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.command = command.getClass().getSimpleName();
+                event.nested = nested;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+}
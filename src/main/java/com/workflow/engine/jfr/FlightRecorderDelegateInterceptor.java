@@ -0,0 +1,54 @@
+package com.workflow.engine.jfr;
+
+import org.camunda.bpm.engine.delegate.BaseDelegateExecution;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.bpmn.delegate.JavaDelegateInvocation;
+import org.camunda.bpm.engine.impl.delegate.DelegateInvocation;
+import org.camunda.bpm.engine.impl.interceptor.DelegateInterceptor;
+import org.camunda.bpm.engine.impl.persistence.entity.ExecutionEntity;
+
+/**
+ * Records a {@link DelegateExecutionEvent} per {@link JavaDelegate#execute} call. The invocation
+ * does not expose the delegate instance, so the event identifies it by process key and activity.
+ */
+public class FlightRecorderDelegateInterceptor implements DelegateInterceptor {
+
+    private final DelegateInterceptor delegate;
+
+    public FlightRecorderDelegateInterceptor(DelegateInterceptor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void handleInvocation(DelegateInvocation invocation) throws Exception {
+        DelegateExecutionEvent event = new DelegateExecutionEvent();
+        if (!(invocation instanceof JavaDelegateInvocation) || !event.isEnabled()) {
+            delegate.handleInvocation(invocation);
+            return;
+        }
+
+        event.begin();
+        boolean failed = true;
+        try {
+            delegate.handleInvocation(invocation);
+            failed = false;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                BaseDelegateExecution execution = invocation.getContextExecution();
+                if (execution instanceof DelegateExecution) {
+                    DelegateExecution delegateExecution = (DelegateExecution) execution;
+                    event.activityId = delegateExecution.getCurrentActivityId();
+                    event.processInstanceId = delegateExecution.getProcessInstanceId();
+                    event.processKey = execution instanceof ExecutionEntity
+                            ? ((ExecutionEntity) execution).getProcessDefinition().getKey()
+                            : ProcessKeys.fromDefinitionId(delegateExecution.getProcessDefinitionId());
+                }
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.workflow.engine.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controls a flight recording with the workflow events enabled:
+ * {@code POST /actuator/flightrecorder/start} (optional {@code settings}: {@code default} or
+ * {@code profile}), {@code POST /actuator/flightrecorder/dump} and
+ * {@code POST /actuator/flightrecorder/stop}. A dump writes everything the JVM has recorded,
+ * including recordings started with {@code -XX:StartFlightRecording}, to a local file.
+ */
+@Component
+@Endpoint(id = "flightrecorder")
+@Slf4j
+public class FlightRecorderEndpoint {
+
+    private static final List<Class<? extends Event>> EVENTS = List.of(
+            ProcessStartEvent.class, ProcessEndEvent.class, DelegateExecutionEvent.class,
+            TaskOperationEvent.class, EngineCommandEvent.class, CacheMissEvent.class);
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+
+    private final Path directory;
+    private final String defaultSettings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+
+    public FlightRecorderEndpoint(@Value("${app.jfr.directory:./data/jfr}") String directory,
+                                  @Value("${app.jfr.settings:profile}") String defaultSettings,
+                                  @Value("${app.jfr.max-age-ms:900000}") long maxAgeMs,
+                                  @Value("${app.jfr.max-size-bytes:268435456}") long maxSizeBytes) {
+        this.directory = Paths.get(directory);
+        this.defaultSettings = defaultSettings;
+        this.maxAge = Duration.ofMillis(maxAgeMs);
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", recording != null && recording.getState() == RecordingState.RUNNING);
+        if (recording != null) {
+            status.put("name", recording.getName());
+            status.put("state", recording.getState());
+            status.put("startTime", recording.getStartTime());
+            status.put("maxAge", recording.getMaxAge());
+            status.put("size", recording.getSize());
+        }
+        status.put("directory", directory.toAbsolutePath().toString());
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> control(@Selector String action, @Nullable String settings) {
+        switch (action) {
+            case "start":
+                start(settings != null ? settings : defaultSettings);
+                return status();
+            case "dump":
+                return dump();
+            case "stop":
+                stop();
+                return status();
+            default:
+                throw new InvalidEndpointRequestException("Unknown action: " + action, "Unknown action");
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            log.info("Flight recording stopped");
+        }
+    }
+
+    private void start(String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return;
+        }
+        try {
+            Recording started = new Recording(Configuration.getConfiguration(settings));
+            started.setName("workflow-engine");
+            started.setToDisk(true);
+            started.setMaxAge(maxAge);
+            started.setMaxSize(maxSizeBytes);
+            EVENTS.forEach(started::enable);
+            // Virtual threads blocked while pinned to their carrier (Java 21+, ignored before)
+            started.enable("jdk.VirtualThreadPinned").withThreshold(PINNED_THRESHOLD).withStackTrace();
+            started.start();
+            recording = started;
+            log.info("Flight recording started with '{}' settings", settings);
+        } catch (IOException | ParseException e) {
+            throw new InvalidEndpointRequestException("Unknown recording settings: " + settings,
+                    "Unknown recording settings");
+        }
+    }
+
+    private Map<String, Object> dump() {
+        Path file = directory.resolve("workflow-engine-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                throw new InvalidEndpointRequestException("No flight recording is running", "No recording");
+            }
+            Files.createDirectories(directory);
+            snapshot.dump(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write flight recording to " + file, e);
+        }
+
+        log.info("Flight recording dumped to {}", file);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("file", file.toAbsolutePath().toString());
+        result.put("size", file.toFile().length());
+        return result;
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.workflow.engine.jfr;
+
+import org.camunda.bpm.engine.impl.history.event.HistoricProcessInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.event.HistoryEventTypes;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+
+import java.util.List;
+
+/**
+ * Records a {@link ProcessEndEvent} for every process end history event. Processes whose history
+ * level produces no instance events (see {@code app.history.levels}) are not recorded.
+ */
+public class FlightRecorderHistoryEventHandler implements HistoryEventHandler {
+
+    @Override
+    public void handleEvent(HistoryEvent historyEvent) {
+        if (!(historyEvent instanceof HistoricProcessInstanceEventEntity)
+                || !historyEvent.isEventOfType(HistoryEventTypes.PROCESS_INSTANCE_END)) {
+            return;
+        }
+
+        ProcessEndEvent event = new ProcessEndEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        HistoricProcessInstanceEventEntity instance = (HistoricProcessInstanceEventEntity) historyEvent;
+        event.processKey = instance.getProcessDefinitionKey();
+        event.processInstanceId = instance.getProcessInstanceId();
+        event.activityId = instance.getEndActivityId();
+        event.state = instance.getState();
+        if (instance.getDurationInMillis() != null) {
+            event.instanceDuration = instance.getDurationInMillis();
+        }
+        event.commit();
+    }
+
+    @Override
+    public void handleEvents(List<HistoryEvent> historyEvents) {
+        for (HistoryEvent historyEvent : historyEvents) {
+            handleEvent(historyEvent);
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.workflow.engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("workflow.ProcessEnd")
+@Label("Process End")
+@Category({"Workflow", "Process"})
+@Description("A process instance ended; the instance duration is from start to end")
+@StackTrace(false)
+public class ProcessEndEvent extends Event {
+
+    @Label("Process Key")
+    public String processKey;
+
+    @Label("Process Instance Id")
+    public String processInstanceId;
+
+    @Label("End Activity Id")
+    public String activityId;
+
+    @Label("State")
+    public String state;
+
+    @Label("Instance Duration")
+    @Timespan(Timespan.MILLISECONDS)
+    public long instanceDuration;
+
+}
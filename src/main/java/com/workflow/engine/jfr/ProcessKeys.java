@@ -0,0 +1,23 @@
+package com.workflow.engine.jfr;
+
+/**
+ * Process keys for events that only have a process definition id at hand.
+ */
+public final class ProcessKeys {
+
+    private ProcessKeys() {
+    }
+
+    /**
+     * Returns the key part of a {@code key:version:id} definition id. Definition ids that are too
+     * long for that form are plain generated ids and are returned unchanged.
+     */
+    public static String fromDefinitionId(String processDefinitionId) {
+        if (processDefinitionId == null) {
+            return null;
+        }
+        int colon = processDefinitionId.indexOf(':');
+        return colon > 0 ? processDefinitionId.substring(0, colon) : processDefinitionId;
+    }
+
+}
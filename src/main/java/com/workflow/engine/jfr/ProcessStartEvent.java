@@ -0,0 +1,29 @@
+package com.workflow.engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("workflow.ProcessStart")
+@Label("Process Start")
+@Category({"Workflow", "Process"})
+@Description("Starting a process instance through ProcessService, up to the point the start returns")
+@StackTrace(false)
+public class ProcessStartEvent extends Event {
+
+    @Label("Process Key")
+    public String processKey;
+
+    @Label("Business Key")
+    public String businessKey;
+
+    @Label("Process Instance Id")
+    public String processInstanceId;
+
+    @Label("Failed")
+    public boolean failed;
+
+}
@@ -0,0 +1,33 @@
+package com.workflow.engine.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("workflow.TaskOperation")
+@Label("Task Operation")
+@Category({"Workflow", "Task"})
+@StackTrace(false)
+public class TaskOperationEvent extends Event {
+
+    public static final String CLAIM = "claim";
+    public static final String COMPLETE = "complete";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Process Key")
+    public String processKey;
+
+    @Label("Activity Id")
+    public String activityId;
+
+    @Label("Task Id")
+    public String taskId;
+
+    @Label("User Id")
+    public String userId;
+
+}
@@ -0,0 +1,21 @@
+package com.workflow.engine.logging;
+
+/**
+ * MDC keys for structured log fields. Process instance and activity ids use the engine's own
+ * logging context keys, so they match what Camunda sets while it runs commands and delegates.
+ */
+public final class LogFields {
+
+    public static final String USER_ID = "userId";
+    public static final String PROCESS_KEY = "processKey";
+    public static final String PROCESS_INSTANCE_ID = "processInstanceId";
+    public static final String TASK_ID = "taskId";
+    /** User a task was delegated by. */
+    public static final String FROM_USER_ID = "fromUserId";
+    /** "false" on requests whose INFO and DEBUG messages are dropped by sampling. */
+    public static final String SAMPLED = "sampled";
+
+    private LogFields() {
+    }
+
+}
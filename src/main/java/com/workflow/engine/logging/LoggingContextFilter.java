@@ -0,0 +1,48 @@
+package com.workflow.engine.logging;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sets the per-request log fields and decides whether the request's INFO messages are sampled;
+ * log4j2-spring.xml drops INFO and DEBUG from the engine package when {@code sampled=false}.
+ * Runs after Spring Security so the user is known, and clears the MDC when the request ends,
+ * including fields the services added.
+ */
+@Component
+public class LoggingContextFilter extends OncePerRequestFilter {
+
+    private final double infoSampleRate;
+
+    public LoggingContextFilter(@Value("${app.logging.info-sample-rate:1.0}") double infoSampleRate) {
+        this.infoSampleRate = infoSampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            MDC.put(LogFields.USER_ID, authentication.getName());
+        }
+        boolean sampled = infoSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < infoSampleRate;
+        MDC.put(LogFields.SAMPLED, sampled ? "true" : "false");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.workflow.engine.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.metrics.Meter;
+import org.camunda.bpm.engine.management.Metrics;
+import org.camunda.bpm.engine.spring.components.jobexecutor.SpringJobExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Job executor metrics: queue depth and busy threads of the executor pool, acquisition and
+ * execution counters, and the number of jobs that ran out of retries. Registered once the engine
+ * is built.
+ *
+ * <p>The counters come from the engine's own meters, which the engine metrics reporter resets
+ * each time it writes them to the database. They are sampled often enough that only the
+ * increments between the last sample and a reset are lost. They stay at zero while
+ * {@code camunda.bpm.metrics.enabled} is false.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JobExecutorMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final List<MeterTotal> totals = new ArrayList<>();
+    private ManagementService managementService;
+    private volatile long failedJobs;
+
+    public synchronized void register(ProcessEngineConfigurationImpl configuration) {
+        JobExecutor jobExecutor = configuration.getJobExecutor();
+        if (jobExecutor instanceof SpringJobExecutor) {
+            TaskExecutor taskExecutor = ((SpringJobExecutor) jobExecutor).getTaskExecutor();
+            if (taskExecutor instanceof ThreadPoolTaskExecutor) {
+                registerPool((ThreadPoolTaskExecutor) taskExecutor);
+            }
+        }
+
+        counter(configuration, Metrics.JOB_ACQUISITION_ATTEMPT, "camunda.job.acquisition.attempts", null);
+        counter(configuration, Metrics.JOB_ACQUIRED_SUCCESS, "camunda.job.acquired", "success");
+        counter(configuration, Metrics.JOB_ACQUIRED_FAILURE, "camunda.job.acquired", "failure");
+        counter(configuration, Metrics.JOB_EXECUTION_REJECTED, "camunda.job.rejected", null);
+        counter(configuration, Metrics.JOB_SUCCESSFUL, "camunda.job.executed", "success");
+        counter(configuration, Metrics.JOB_FAILED, "camunda.job.executed", "failure");
+
+        managementService = configuration.getManagementService();
+        Gauge.builder("camunda.job.failed", this, metrics -> metrics.failedJobs)
+                .description("Jobs without retries left")
+                .register(meterRegistry);
+        refreshFailedJobs();
+    }
+
+    @Scheduled(fixedDelayString = "${app.metrics.job-sample-interval-ms:1000}")
+    public synchronized void sample() {
+        totals.forEach(MeterTotal::total);
+    }
+
+    // Counting failed jobs is a query, so scrapes read the last result instead
+    @Scheduled(fixedDelayString = "${app.metrics.failed-jobs-refresh-ms:30000}")
+    public void refreshFailedJobs() {
+        if (managementService == null) {
+            return;
+        }
+        try {
+            failedJobs = managementService.createJobQuery().noRetriesLeft().count();
+        } catch (Exception e) {
+            log.warn("Failed to count jobs without retries: {}", e.getMessage());
+        }
+    }
+
+    private void registerPool(ThreadPoolTaskExecutor taskExecutor) {
+        Gauge.builder("camunda.job.executor.queue.size", taskExecutor, JobExecutorMetrics::queueSize)
+                .description("Acquired jobs waiting for an executor thread")
+                .register(meterRegistry);
+        Gauge.builder("camunda.job.executor.active", taskExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Executor threads running jobs")
+                .register(meterRegistry);
+        Gauge.builder("camunda.job.executor.pool.size", taskExecutor, ThreadPoolTaskExecutor::getPoolSize)
+                .register(meterRegistry);
+    }
+
+    private static int queueSize(ThreadPoolTaskExecutor taskExecutor) {
+        try {
+            ThreadPoolExecutor executor = taskExecutor.getThreadPoolExecutor();
+            return executor.getQueue().size();
+        } catch (IllegalStateException e) {
+            // Not initialized yet, or already shut down
+            return 0;
+        }
+    }
+
+    private void counter(ProcessEngineConfigurationImpl configuration, String meterName,
+                         String metric, String outcome) {
+        Meter meter = configuration.getMetricsRegistry().getDbMeterByName(meterName);
+        if (meter == null) {
+            return;
+        }
+        MeterTotal total = new MeterTotal(meter);
+        totals.add(total);
+        FunctionCounter.Builder<MeterTotal> builder = FunctionCounter.builder(metric, total, MeterTotal::total);
+        if (outcome != null) {
+            builder.tag("outcome", outcome);
+        }
+        builder.register(meterRegistry);
+    }
+
+    /**
+     * Running total of an engine meter that survives the meter being cleared.
+     */
+    private static class MeterTotal {
+
+        private final Meter meter;
+        private long last;
+        private long total;
+
+        MeterTotal(Meter meter) {
+            this.meter = meter;
+        }
+
+        synchronized double total() {
+            long current = meter.get();
+            // A smaller value means the reporter cleared the meter since the last sample
+            total += current >= last ? current - last : current;
+            last = current;
+            return total;
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.workflow.engine.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.camunda.bpm.engine.delegate.BaseDelegateExecution;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.delegate.JavaDelegate;
+import org.camunda.bpm.engine.impl.bpmn.delegate.JavaDelegateInvocation;
+import org.camunda.bpm.engine.impl.delegate.DelegateInvocation;
+import org.camunda.bpm.engine.impl.interceptor.DelegateInterceptor;
+
+/**
+ * Times every {@link JavaDelegate#execute} call as {@code camunda.delegate.execute}, tagged with
+ * the service task's activity id and whether it threw. Other invocations (listeners,
+ * expressions) pass through untimed.
+ */
+public class TimedDelegateInterceptor implements DelegateInterceptor {
+
+    public static final String METRIC = "camunda.delegate.execute";
+
+    private final DelegateInterceptor delegate;
+    private final MeterRegistry meterRegistry;
+
+    public TimedDelegateInterceptor(DelegateInterceptor delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void handleInvocation(DelegateInvocation invocation) throws Exception {
+        if (!(invocation instanceof JavaDelegateInvocation)) {
+            delegate.handleInvocation(invocation);
+            return;
+        }
+
+        String activity = activityOf(invocation);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            delegate.handleInvocation(invocation);
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .tag("activity", activity)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * The invocation does not expose the delegate instance, so the activity running it stands in;
+     * falls back to the definition key when there is no current activity.
+     */
+    static String activityOf(DelegateInvocation invocation) {
+        BaseDelegateExecution execution = invocation.getContextExecution();
+        if (execution instanceof DelegateExecution) {
+            String activityId = ((DelegateExecution) execution).getCurrentActivityId();
+            if (activityId != null) {
+                return activityId;
+            }
+        }
+        return invocation.getContextResource() != null
+                ? invocation.getContextResource().getKey()
+                : "unknown";
+    }
+
+}
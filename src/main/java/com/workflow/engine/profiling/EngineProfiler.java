@@ -0,0 +1,129 @@
+package com.workflow.engine.profiling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in latency profile of engine commands, SQL statements and API requests. Off by default
+ * ({@code app.profiler.enabled}); when off, the interceptors only read one flag.
+ *
+ * <p>Statements are counted per API request on the request thread, so SQL issued by streamed
+ * responses or the job executor is profiled per statement but not attributed to a request.
+ */
+@Component
+@Slf4j
+public class EngineProfiler {
+
+    private final Map<String, LatencyStats> commands = new ConcurrentHashMap<>();
+    private final Map<String, LatencyStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, LatencyStats> requests = new ConcurrentHashMap<>();
+    private final ThreadLocal<int[]> requestStatements = new ThreadLocal<>();
+
+    private volatile boolean enabled;
+    private volatile long slowQueryMicros;
+
+    public EngineProfiler(@Value("${app.profiler.enabled:false}") boolean enabled,
+                          @Value("${app.profiler.slow-query-ms:200}") long slowQueryMs) {
+        this.enabled = enabled;
+        this.slowQueryMicros = slowQueryMs * 1000;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        log.info("Engine profiler {}", enabled ? "enabled" : "disabled");
+    }
+
+    public void setSlowQueryMs(long slowQueryMs) {
+        this.slowQueryMicros = slowQueryMs * 1000;
+    }
+
+    public void reset() {
+        commands.clear();
+        statements.clear();
+        requests.clear();
+    }
+
+    void recordCommand(String command, long nanos) {
+        commands.computeIfAbsent(command, k -> new LatencyStats()).record(nanos, 0);
+    }
+
+    /**
+     * Records a statement and logs it when slower than the threshold.
+     * @param sql supplies the statement text, only called for slow statements
+     */
+    void recordStatement(String statementId, long nanos, long rows, Supplier<String> sql) {
+        statements.computeIfAbsent(statementId, k -> new LatencyStats()).record(nanos, rows);
+        int[] perRequest = requestStatements.get();
+        if (perRequest != null) {
+            perRequest[0]++;
+        }
+        if (nanos / 1000 >= slowQueryMicros) {
+            log.warn("Slow query: {} took {} ms, {} rows: {}", statementId, nanos / 1_000_000, rows, sql.get());
+        }
+    }
+
+    void beginRequest() {
+        requestStatements.set(new int[1]);
+    }
+
+    /**
+     * Ends the request started on this thread and records its latency and statement count.
+     * The statement count is stored as the row count of the request entry.
+     */
+    void endRequest(String endpoint, long nanos) {
+        int[] perRequest = requestStatements.get();
+        requestStatements.remove();
+        if (perRequest != null) {
+            requests.computeIfAbsent(endpoint, k -> new LatencyStats()).record(nanos, perRequest[0]);
+        }
+    }
+
+    /**
+     * Returns commands, statements and requests, each ordered by total time spent.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("slowQueryMs", slowQueryMicros / 1000);
+        snapshot.put("commands", sorted(commands, false));
+        snapshot.put("statements", sorted(statements, true));
+
+        Map<String, Object> perRequest = new LinkedHashMap<>();
+        requests.entrySet().stream()
+                .sorted(byTotalTime())
+                .forEach(entry -> {
+                    Map<String, Object> stats = entry.getValue().snapshot(true);
+                    // Rows of a request entry are the statements it executed
+                    stats.put("statements", stats.remove("rows"));
+                    stats.put("statementsPerRequest", stats.remove("meanRows"));
+                    perRequest.put(entry.getKey(), stats);
+                });
+        snapshot.put("requests", perRequest);
+        return snapshot;
+    }
+
+    private static Map<String, Object> sorted(Map<String, LatencyStats> stats, boolean withRows) {
+        Map<String, Object> sorted = new LinkedHashMap<>();
+        stats.entrySet().stream()
+                .sorted(byTotalTime())
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue().snapshot(withRows)));
+        return sorted;
+    }
+
+    private static Comparator<Map.Entry<String, LatencyStats>> byTotalTime() {
+        return Comparator.comparingLong((Map.Entry<String, LatencyStats> entry) -> entry.getValue().getTotalMicros())
+                .reversed();
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.workflow.engine.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/engineprofiler} returns the profile;
+ * {@code POST /actuator/engineprofiler/{enable|disable|reset}} controls it, and {@code enable}
+ * optionally takes a new {@code slowQueryMs}.
+ */
+@Component
+@Endpoint(id = "engineprofiler")
+@RequiredArgsConstructor
+public class EngineProfilerEndpoint {
+
+    private final EngineProfiler profiler;
+
+    @ReadOperation
+    public Map<String, Object> profile() {
+        return profiler.snapshot();
+    }
+
+    @WriteOperation
+    public Map<String, Object> control(@Selector String action, @Nullable Long slowQueryMs) {
+        switch (action) {
+            case "enable":
+                if (slowQueryMs != null) {
+                    profiler.setSlowQueryMs(slowQueryMs);
+                }
+                profiler.setEnabled(true);
+                break;
+            case "disable":
+                profiler.setEnabled(false);
+                break;
+            case "reset":
+                profiler.reset();
+                break;
+            default:
+                throw new InvalidEndpointRequestException("Unknown action: " + action, "Unknown action");
+        }
+        return profiler.snapshot();
+    }
+
+}
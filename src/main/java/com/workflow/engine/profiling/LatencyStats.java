@@ -0,0 +1,90 @@
+package com.workflow.engine.profiling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and row counts of one command or statement. Latencies go into a log-linear histogram
+ * in microseconds with 8 buckets per power of two, so percentiles are within 12.5%.
+ */
+class LatencyStats {
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BITS = 3;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos, long rowCount) {
+        long micros = nanos / 1000;
+        histogram.incrementAndGet(bucketOf(micros));
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+    }
+
+    long getTotalMicros() {
+        return totalMicros.sum();
+    }
+
+    Map<String, Object> snapshot(boolean withRows) {
+        long calls = count.sum();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", calls);
+        snapshot.put("totalMs", totalMicros.sum() / 1000);
+        snapshot.put("meanUs", calls == 0 ? 0 : totalMicros.sum() / calls);
+        snapshot.put("p50Us", percentile(calls, 0.50));
+        snapshot.put("p99Us", percentile(calls, 0.99));
+        snapshot.put("p999Us", percentile(calls, 0.999));
+        snapshot.put("maxUs", maxMicros.get());
+        if (withRows) {
+            snapshot.put("rows", rows.sum());
+            snapshot.put("meanRows", calls == 0 ? 0 : (double) rows.sum() / calls);
+        }
+        return snapshot;
+    }
+
+    private long percentile(long calls, double quantile) {
+        if (calls == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * calls);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) Math.max(micros, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exponent - SUB_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((micros >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.workflow.engine.profiling;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+
+/**
+ * Records the latency of every engine command, nested commands included, by command class.
+ */
+public class ProfilingCommandInterceptor extends CommandInterceptor {
+
+    private final EngineProfiler profiler;
+
+    public ProfilingCommandInterceptor(EngineProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public <T> T execute(Command<T> command) {
+        if (!profiler.isEnabled()) {
+            return next.execute(command);
+        }
+
+        long started = System.nanoTime();
+        try {
+            return next.execute(command);
+        } finally {
+            profiler.recordCommand(command.getClass().getSimpleName(), System.nanoTime() - started);
+        }
+    }
+
+}
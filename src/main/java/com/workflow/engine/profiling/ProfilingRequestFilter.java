@@ -0,0 +1,43 @@
+package com.workflow.engine.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Attributes statements to API requests, keyed by method and mapped path pattern so that
+ * requests for different ids share one entry.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProfilingRequestFilter extends OncePerRequestFilter {
+
+    private final EngineProfiler profiler;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !profiler.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long started = System.nanoTime();
+        profiler.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            profiler.endRequest(request.getMethod() + " " + (pattern != null ? pattern : "unmapped"),
+                    System.nanoTime() - started);
+        }
+    }
+
+}
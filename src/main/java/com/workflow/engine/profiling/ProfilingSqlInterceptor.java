@@ -0,0 +1,80 @@
+package com.workflow.engine.profiling;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.List;
+
+/**
+ * MyBatis plugin on the engine's executor that records every statement by mapped statement id,
+ * with the rows returned or updated. With JDBC batching, updates only reach the database when
+ * the batch is flushed; that shows up as {@code flushStatements}, with the rows of all batches.
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {})
+})
+public class ProfilingSqlInterceptor implements Interceptor {
+
+    private static final String FLUSH = "flushStatements";
+
+    private final EngineProfiler profiler;
+
+    public ProfilingSqlInterceptor(EngineProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!profiler.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        long started = System.nanoTime();
+        Object result = invocation.proceed();
+        long elapsed = System.nanoTime() - started;
+
+        Object[] args = invocation.getArgs();
+        if (args.length == 0) {
+            List<?> batches = (List<?>) result;
+            if (!batches.isEmpty()) {
+                profiler.recordStatement(FLUSH, elapsed, batchRows(batches), () -> batches.size() + " batches");
+            }
+        } else {
+            MappedStatement statement = (MappedStatement) args[0];
+            Object parameter = args[1];
+            profiler.recordStatement(statement.getId(), elapsed, rows(result),
+                    () -> statement.getBoundSql(parameter).getSql().replaceAll("\\s+", " "));
+        }
+        return result;
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof List) {
+            return ((List<?>) result).size();
+        }
+        // Batched updates return a placeholder instead of a row count
+        return result instanceof Integer && (Integer) result > 0 ? (Integer) result : 0;
+    }
+
+    private static long batchRows(List<?> batches) {
+        long rows = 0;
+        for (Object batch : batches) {
+            for (int count : ((BatchResult) batch).getUpdateCounts()) {
+                rows += Math.max(count, 0);
+            }
+        }
+        return rows;
+    }
+
+}
@@ -2,9 +2,13 @@ package com.workflow.engine.repository;
 
 import com.workflow.engine.entity.WorkflowInstance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface WorkflowInstanceRepository extends JpaRepository<WorkflowInstance, Long> {
@@ -16,4 +20,16 @@ public interface WorkflowInstanceRepository extends JpaRepository<WorkflowInstan
     List<WorkflowInstance> findByProcessDefinitionKeyAndStatus(String processDefinitionKey,
                                                                WorkflowInstance.Status status);
 
+    Optional<WorkflowInstance> findByProcessInstanceId(String processInstanceId);
+
+    Optional<WorkflowInstance> findByProcessDefinitionKeyAndBusinessKey(String processDefinitionKey,
+                                                                        String businessKey);
+
+    /**
+     * Returns (process definition key, business key) of instances started since the given time.
+     */
+    @Query("select w.processDefinitionKey, w.businessKey from WorkflowInstance w "
+            + "where w.businessKey is not null and w.startedAt >= :since")
+    List<Object[]> findBusinessKeysStartedSince(@Param("since") LocalDateTime since);
+
 }
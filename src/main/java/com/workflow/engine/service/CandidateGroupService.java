@@ -0,0 +1,33 @@
+package com.workflow.engine.service;
+
+import com.workflow.engine.cache.CacheNames;
+import lombok.RequiredArgsConstructor;
+import org.camunda.bpm.engine.IdentityService;
+import org.camunda.bpm.engine.identity.Group;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the candidate groups of a user once per cache period for the inbox ETag and the
+ * task change log. Candidate task queries resolve the groups in the engine.
+ */
+@Service
+@RequiredArgsConstructor
+public class CandidateGroupService {
+
+    private final IdentityService identityService;
+
+    @Cacheable(CacheNames.CANDIDATE_GROUPS)
+    public List<String> getCandidateGroups(String userId) {
+        return identityService.createGroupQuery()
+                .groupMember(userId)
+                .list()
+                .stream()
+                .map(Group::getId)
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.workflow.engine.service;
+
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+
+/**
+ * Read-only view of an instance that is no longer in the runtime tables, returned when an
+ * idempotent start finds that the instance for its business key already ended.
+ */
+class EndedProcessInstance implements ProcessInstance {
+
+    private final String id;
+    private final String processDefinitionId;
+    private final String businessKey;
+    private final String rootProcessInstanceId;
+    private final String caseInstanceId;
+    private final String tenantId;
+
+    private EndedProcessInstance(String id, String processDefinitionId, String businessKey,
+                                 String rootProcessInstanceId, String caseInstanceId, String tenantId) {
+        this.id = id;
+        this.processDefinitionId = processDefinitionId;
+        this.businessKey = businessKey;
+        this.rootProcessInstanceId = rootProcessInstanceId;
+        this.caseInstanceId = caseInstanceId;
+        this.tenantId = tenantId;
+    }
+
+    static EndedProcessInstance of(HistoricProcessInstance historic) {
+        return new EndedProcessInstance(historic.getId(), historic.getProcessDefinitionId(),
+                historic.getBusinessKey(), historic.getRootProcessInstanceId(),
+                historic.getCaseInstanceId(), historic.getTenantId());
+    }
+
+    /**
+     * For instances whose history was already archived or cleaned up.
+     */
+    static EndedProcessInstance of(String processInstanceId, String businessKey) {
+        return new EndedProcessInstance(processInstanceId, null, businessKey, processInstanceId, null, null);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getProcessInstanceId() {
+        return id;
+    }
+
+    @Override
+    public String getProcessDefinitionId() {
+        return processDefinitionId;
+    }
+
+    @Override
+    public String getBusinessKey() {
+        return businessKey;
+    }
+
+    @Override
+    public String getRootProcessInstanceId() {
+        return rootProcessInstanceId;
+    }
+
+    @Override
+    public String getCaseInstanceId() {
+        return caseInstanceId;
+    }
+
+    @Override
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    @Override
+    public boolean isSuspended() {
+        return false;
+    }
+
+    @Override
+    public boolean isEnded() {
+        return true;
+    }
+
+}
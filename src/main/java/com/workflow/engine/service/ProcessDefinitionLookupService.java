@@ -0,0 +1,26 @@
+package com.workflow.engine.service;
+
+import com.workflow.engine.cache.CacheNames;
+import lombok.RequiredArgsConstructor;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cached process definition lookups by id.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProcessDefinitionLookupService {
+
+    private final RepositoryService repositoryService;
+
+    @Cacheable(value = CacheNames.PROCESS_DEFINITIONS, unless = "#result == null")
+    public ProcessDefinition findById(String processDefinitionId) {
+        return repositoryService.createProcessDefinitionQuery()
+                .processDefinitionId(processDefinitionId)
+                .singleResult();
+    }
+
+}
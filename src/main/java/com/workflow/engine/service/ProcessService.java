@@ -1,7 +1,15 @@
 package com.workflow.engine.service;
 
+import com.workflow.engine.cache.CacheNames;
+import com.workflow.engine.cache.RequestCoalescer;
+import com.workflow.engine.dto.FieldSet;
 import com.workflow.engine.entity.WorkflowInstance;
+import com.workflow.engine.history.archive.HistoryArchive;
+import com.workflow.engine.jfr.ProcessStartEvent;
+import com.workflow.engine.logging.LogFields;
 import com.workflow.engine.repository.WorkflowInstanceRepository;
+import com.workflow.engine.stream.PagedQuery;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.camunda.bpm.engine.HistoryService;
@@ -11,9 +19,15 @@ import org.camunda.bpm.engine.history.HistoricProcessInstance;
 import org.camunda.bpm.engine.repository.Deployment;
 import org.camunda.bpm.engine.repository.ProcessDefinition;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+import org.camunda.bpm.engine.runtime.VariableInstanceQuery;
+import org.slf4j.MDC;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -30,6 +44,15 @@ public class ProcessService {
     private final RepositoryService repositoryService;
     private final HistoryService historyService;
     private final WorkflowInstanceRepository workflowInstanceRepository;
+    private final HistoryArchive historyArchive;
+    private final RequestCoalescer requestCoalescer;
+    private final StartKeyLookupService startKeyLookupService;
+    private final TransactionTemplate transactionTemplate;
+
+    public static final Set<String> INSTANCE_FIELDS =
+            Set.of("id", "processDefinitionId", "businessKey", "isSuspended", "variables");
+
+    private static final int VARIABLE_BATCH_SIZE = 500;
 
     @Transactional
     /**
@@ -49,15 +72,70 @@ public class ProcessService {
         return deployment.getId();
     }
 
-    @Transactional
+    @Timed(value = "workflow.process.start", description = "Starting a process instance")
     /**
      * Initializes the component with default configuration.
      * Should be called before any other operations.
      */
     public ProcessInstance startProcess(String processKey, String businessKey,
                                         Map<String, Object> variables) {
+        boolean hasBusinessKey = businessKey != null && !businessKey.isBlank();
+        // Without the filter every business key is looked up
+        if (hasBusinessKey && (!startKeyLookupService.isEnabled()
+                || startKeyLookupService.mightExist(processKey, businessKey))) {
+            Optional<WorkflowInstance> existing =
+                    workflowInstanceRepository.findByProcessDefinitionKeyAndBusinessKey(processKey, businessKey);
+            if (existing.isPresent()) {
+                return existingInstance(processKey, existing.get());
+            }
+        }
+
+        ProcessStartEvent event = new ProcessStartEvent();
+        event.begin();
+        ProcessInstance instance = null;
+        DataIntegrityViolationException conflict = null;
+        try {
+            // The engine start and the tracking row commit or roll back together
+            instance = transactionTemplate.execute(status -> start(processKey, businessKey, hasBusinessKey, variables));
+        } catch (DataIntegrityViolationException e) {
+            if (!hasBusinessKey) {
+                throw e;
+            }
+            conflict = e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.processKey = processKey;
+                event.businessKey = businessKey;
+                event.processInstanceId = instance != null ? instance.getId() : null;
+                event.failed = instance == null;
+                event.commit();
+            }
+        }
+
+        if (conflict != null) {
+            // Started concurrently or before the filter's window. This start has rolled back, so
+            // the row that won is read in a new transaction.
+            Optional<WorkflowInstance> winner =
+                    workflowInstanceRepository.findByProcessDefinitionKeyAndBusinessKey(processKey, businessKey);
+            if (winner.isEmpty()) {
+                throw conflict;
+            }
+            startKeyLookupService.record(processKey, businessKey);
+            return existingInstance(processKey, winner.get());
+        }
+
+        try (MDC.MDCCloseable keyField = MDC.putCloseable(LogFields.PROCESS_KEY, processKey);
+             MDC.MDCCloseable idField = MDC.putCloseable(LogFields.PROCESS_INSTANCE_ID, instance.getId())) {
+            log.info("Process started");
+        }
+        return instance;
+    }
+
+    private ProcessInstance start(String processKey, String businessKey, boolean hasBusinessKey,
+                                  Map<String, Object> variables) {
         ProcessInstance instance;
-        if (businessKey != null && !businessKey.isBlank()) {
+        if (hasBusinessKey) {
             instance = runtimeService.startProcessInstanceByKey(processKey, businessKey,
                     variables != null ? variables : Map.of());
         } else {
@@ -69,22 +147,57 @@ public class ProcessService {
         String currentUser = getCurrentUser();
         WorkflowInstance workflowInstance = WorkflowInstance.builder()
                 .processDefinitionKey(processKey)
-                .businessKey(businessKey)
+                .businessKey(hasBusinessKey ? businessKey : null)
+                .processInstanceId(instance.getId())
                 .status(WorkflowInstance.Status.ACTIVE)
                 .startedBy(currentUser)
                 .startedAt(LocalDateTime.now())
                 .build();
         workflowInstanceRepository.save(workflowInstance);
-
-        log.info("Process started: {} (Instance ID: {})", processKey, instance.getId());
+        if (hasBusinessKey) {
+            startKeyLookupService.record(processKey, businessKey);
+        }
         return instance;
     }
 
+    private ProcessInstance existingInstance(String processKey, WorkflowInstance started) {
+        try (MDC.MDCCloseable keyField = MDC.putCloseable(LogFields.PROCESS_KEY, processKey);
+             MDC.MDCCloseable idField = MDC.putCloseable(LogFields.PROCESS_INSTANCE_ID,
+                     started.getProcessInstanceId())) {
+            log.info("Process already started for business key, returning existing instance");
+        }
+        return findStartedInstance(started);
+    }
+
+    private ProcessInstance findStartedInstance(WorkflowInstance started) {
+        String processInstanceId = started.getProcessInstanceId();
+        ProcessInstance running = runtimeService.createProcessInstanceQuery()
+                .processInstanceId(processInstanceId)
+                .singleResult();
+        if (running != null) {
+            return running;
+        }
+
+        HistoricProcessInstance historic = historyService.createHistoricProcessInstanceQuery()
+                .processInstanceId(processInstanceId)
+                .singleResult();
+        return historic != null
+                ? EndedProcessInstance.of(historic)
+                : EndedProcessInstance.of(processInstanceId, started.getBusinessKey());
+    }
+
     /**
      * Processes the request and returns the result.
      * This method handles null inputs gracefully.
      */
     public Map<String, Object> getProcessStatus(String processInstanceId) {
+        // Concurrent polls for the same instance share one set of engine queries, and so one
+        // result, which is why loadProcessStatus returns it unmodifiable
+        return requestCoalescer.execute("processStatus", processInstanceId,
+                () -> loadProcessStatus(processInstanceId));
+    }
+
+    private Map<String, Object> loadProcessStatus(String processInstanceId) {
         // Check if still active
         ProcessInstance activeInstance = runtimeService.createProcessInstanceQuery()
                 .processInstanceId(processInstanceId)
@@ -98,8 +211,8 @@ public class ProcessService {
             status.put("isSuspended", activeInstance.isSuspended());
             status.put("isEnded", false);
     // Validate input parameters before processing
-            status.put("variables", runtimeService.getVariables(processInstanceId));
-            return status;
+            status.put("variables", Collections.unmodifiableMap(runtimeService.getVariables(processInstanceId)));
+            return Collections.unmodifiableMap(status);
         }
 
         // Check in history
@@ -118,16 +231,40 @@ public class ProcessService {
             status.put("durationInMillis", historicInstance.getDurationInMillis());
             status.put("isEnded", true);
             status.put("deleteReason", historicInstance.getDeleteReason());
-            return status;
+            return Collections.unmodifiableMap(status);
         }
 
-        return null;
+        // Fall back to the cold archive for instances moved out of the history tables
+        return historyArchive.findByProcessInstanceId(processInstanceId)
+                .map(record -> {
+                    Map<String, Object> status = new HashMap<>();
+                    status.put("processInstanceId", record.get("processInstanceId"));
+                    status.put("processDefinitionId", record.get("processDefinitionId"));
+                    status.put("businessKey", record.get("businessKey"));
+                    status.put("startTime", record.get("startTime"));
+                    status.put("endTime", record.get("endTime"));
+                    status.put("durationInMillis", record.get("durationInMillis"));
+                    status.put("isEnded", true);
+                    status.put("deleteReason", record.get("deleteReason"));
+                    status.put("isArchived", true);
+                    return Collections.unmodifiableMap(status);
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Returns the ids of archived process instances started with the given business key.
+     */
+    public List<String> findArchivedInstances(String businessKey) {
+        return historyArchive.findProcessInstanceIdsByBusinessKey(businessKey);
     }
 
     /**
      * Processes the request and returns the result.
      * This method handles null inputs gracefully.
      */
+    // Keyed by catalog version so the cached listing is never older than the catalog ETag
+    @Cacheable(value = CacheNames.PROCESS_DEFINITION_LIST, key = "@changeVersions.catalogVersion()")
     public List<Map<String, Object>> getAllProcessDefinitions() {
         List<ProcessDefinition> definitions = repositoryService.createProcessDefinitionQuery()
                 .latestVersion()
@@ -136,62 +273,145 @@ public class ProcessService {
                 .list();
 
         return definitions.stream()
-                .map(def -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("id", def.getId());
-                    map.put("key", def.getKey());
-
-                    map.put("name", def.getName());
-                    map.put("version", def.getVersion());
-                    map.put("deploymentId", def.getDeploymentId());
-                    map.put("description", def.getDescription());
-                    map.put("isSuspended", def.isSuspended());
-
-                    // Count active instances
-                    long activeCount = runtimeService.createProcessInstanceQuery()
-                            .processDefinitionId(def.getId())
-                            .active()
-                            .count();
-                    map.put("activeInstanceCount", activeCount);
+                .map(this::mapDefinition)
+                .collect(Collectors.toList());
+    }
 
-                    return map;
-                })
+    /**
+     * Pages over the latest definitions for streaming; not cached.
+     */
+    public PagedQuery<Map<String, Object>> processDefinitionPages() {
+        return (firstResult, maxResults) -> repositoryService.createProcessDefinitionQuery()
+                .latestVersion()
+                .orderByProcessDefinitionName()
+                .asc()
+                // Ties in name would make page boundaries unstable
+                .orderByProcessDefinitionId()
+                .asc()
+                .listPage(firstResult, maxResults)
+                .stream()
+                .map(this::mapDefinition)
                 .collect(Collectors.toList());
     }
 
+    private Map<String, Object> mapDefinition(ProcessDefinition def) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", def.getId());
+        map.put("key", def.getKey());
+
+        map.put("name", def.getName());
+        map.put("version", def.getVersion());
+        map.put("deploymentId", def.getDeploymentId());
+        map.put("description", def.getDescription());
+        map.put("isSuspended", def.isSuspended());
+
+        // Count active instances
+        long activeCount = runtimeService.createProcessInstanceQuery()
+                .processDefinitionId(def.getId())
+                .active()
+                .count();
+        map.put("activeInstanceCount", activeCount);
+
+        return map;
+    }
+
     public List<Map<String, Object>> getActiveInstances(String processDefinitionId) {
+        return getActiveInstances(processDefinitionId, FieldSet.ALL);
+    }
+
+    /**
+     * Lists the active instances of a definition with only the requested fields. Variables are
+     * read only when requested, limited to the requested names, in one query per batch of
+     * instances instead of one per instance.
+     */
+    public List<Map<String, Object>> getActiveInstances(String processDefinitionId, FieldSet fields) {
         List<ProcessInstance> instances = runtimeService.createProcessInstanceQuery()
                 .processDefinitionId(processDefinitionId)
                 .active()
                 .list();
+        return mapInstances(instances, fields);
+    }
+
+    /**
+     * Pages over the active instances of a definition for streaming, with the variables of each
+     * page read in one query.
+     */
+    public PagedQuery<Map<String, Object>> activeInstancePages(String processDefinitionId, FieldSet fields) {
+        return (firstResult, maxResults) -> mapInstances(runtimeService.createProcessInstanceQuery()
+                .processDefinitionId(processDefinitionId)
+                .active()
+                .orderByProcessInstanceId()
+                .asc()
+                .listPage(firstResult, maxResults), fields);
+    }
+
+    private List<Map<String, Object>> mapInstances(List<ProcessInstance> instances, FieldSet fields) {
+        Map<String, Map<String, Object>> variables = fields.includesVariables()
+                ? findInstanceVariables(instances, fields.getVariableNames())
+                : Collections.emptyMap();
 
         return instances.stream()
                 .map(inst -> {
                     Map<String, Object> map = new HashMap<>();
-                    map.put("id", inst.getId());
-                    map.put("processDefinitionId", inst.getProcessDefinitionId());
-                    map.put("businessKey", inst.getBusinessKey());
-                    map.put("isSuspended", inst.isSuspended());
-                    map.put("variables", runtimeService.getVariables(inst.getId()));
+                    if (fields.includes("id")) {
+                        map.put("id", inst.getId());
+                    }
+                    if (fields.includes("processDefinitionId")) {
+                        map.put("processDefinitionId", inst.getProcessDefinitionId());
+                    }
+                    if (fields.includes("businessKey")) {
+                        map.put("businessKey", inst.getBusinessKey());
+                    }
+                    if (fields.includes("isSuspended")) {
+                        map.put("isSuspended", inst.isSuspended());
+                    }
+                    if (fields.includesVariables()) {
+                        map.put("variables", variables.getOrDefault(inst.getId(), new HashMap<>()));
+                    }
                     return map;
                 })
                 .collect(Collectors.toList());
     }
 
+    private Map<String, Map<String, Object>> findInstanceVariables(List<ProcessInstance> instances,
+                                                                   Set<String> variableNames) {
+        Map<String, Map<String, Object>> variables = new HashMap<>();
+        for (int from = 0; from < instances.size(); from += VARIABLE_BATCH_SIZE) {
+            String[] scopeIds = instances.subList(from, Math.min(instances.size(), from + VARIABLE_BATCH_SIZE))
+                    .stream()
+                    .map(ProcessInstance::getId)
+                    .toArray(String[]::new);
+
+            // Process instance level variables only, like getVariables(processInstanceId)
+            VariableInstanceQuery query = runtimeService.createVariableInstanceQuery()
+                    .variableScopeIdIn(scopeIds);
+            if (!variableNames.isEmpty()) {
+                query.variableNameIn(variableNames.toArray(new String[0]));
+            }
+            for (VariableInstance variable : query.list()) {
+                variables.computeIfAbsent(variable.getProcessInstanceId(), id -> new HashMap<>())
+                        .put(variable.getName(), variable.getValue());
+            }
+        }
+        return variables;
+    }
+
     @Transactional
     public void terminateProcess(String processInstanceId, String reason) {
         runtimeService.deleteProcessInstance(processInstanceId, reason);
 
-        workflowInstanceRepository.findAll().stream()
-                .filter(wi -> wi.getBusinessKey() != null)
-                .findFirst()
+        // Same key and condition as the completion handler, which then leaves the row alone
+        workflowInstanceRepository.findByProcessInstanceId(processInstanceId)
+                .filter(wi -> wi.getCompletedAt() == null)
                 .ifPresent(wi -> {
                     wi.setStatus(WorkflowInstance.Status.TERMINATED);
                     wi.setCompletedAt(LocalDateTime.now());
                     workflowInstanceRepository.save(wi);
                 });
 
-        log.info("Process terminated: {} (Reason: {})", processInstanceId, reason);
+        try (MDC.MDCCloseable idField = MDC.putCloseable(LogFields.PROCESS_INSTANCE_ID, processInstanceId)) {
+            log.info("Process terminated: {}", reason);
+        }
     }
 
     private String getCurrentUser() {
@@ -0,0 +1,71 @@
+package com.workflow.engine.service;
+
+import com.workflow.engine.cache.RecentKeyFilter;
+import com.workflow.engine.repository.WorkflowInstanceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Recently started (process definition key, business key) pairs, so an idempotent start only
+ * queries {@code workflow_instances} when the pair may already exist. New keys, the common case,
+ * skip the query. Pairs older than the filter's window are caught by the unique index instead.
+ * When disabled, callers query for every pair.
+ */
+@Service
+@Slf4j
+public class StartKeyLookupService {
+
+    private final WorkflowInstanceRepository workflowInstanceRepository;
+    private final boolean enabled;
+    private final int warmUpHours;
+    private final RecentKeyFilter filter;
+
+    public StartKeyLookupService(WorkflowInstanceRepository workflowInstanceRepository,
+                                 @Value("${app.idempotency.enabled:true}") boolean enabled,
+                                 @Value("${app.idempotency.expected-keys:100000}") int expectedKeys,
+                                 @Value("${app.idempotency.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${app.idempotency.warm-up-hours:24}") int warmUpHours) {
+        this.workflowInstanceRepository = workflowInstanceRepository;
+        this.enabled = enabled;
+        this.warmUpHours = warmUpHours;
+        this.filter = new RecentKeyFilter(expectedKeys, falsePositiveRate);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns false if no instance was started recently for the pair; true means "query to find out".
+     */
+    public boolean mightExist(String processKey, String businessKey) {
+        return filter.mightContain(pair(processKey, businessKey));
+    }
+
+    public void record(String processKey, String businessKey) {
+        filter.put(pair(processKey, businessKey));
+    }
+
+    // Retries after a restart should still find their instance without a query miss
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        List<Object[]> recent = workflowInstanceRepository.findBusinessKeysStartedSince(
+                LocalDateTime.now().minusHours(warmUpHours));
+        recent.forEach(row -> record((String) row[0], (String) row[1]));
+        log.info("Loaded {} business keys started in the last {} hours", recent.size(), warmUpHours);
+    }
+
+    private static String pair(String processKey, String businessKey) {
+        return processKey + '\u0000' + businessKey;
+    }
+
+}
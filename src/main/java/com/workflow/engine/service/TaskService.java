@@ -1,13 +1,23 @@
 package com.workflow.engine.service;
 
+import com.workflow.engine.dto.FieldSet;
 import com.workflow.engine.entity.TaskAssignment;
+import com.workflow.engine.history.archive.HistoryArchive;
+import com.workflow.engine.jfr.ProcessKeys;
+import com.workflow.engine.jfr.TaskOperationEvent;
+import com.workflow.engine.logging.LogFields;
 import com.workflow.engine.repository.TaskAssignmentRepository;
+import com.workflow.engine.stream.PagedQuery;
+import com.workflow.engine.sync.TaskChangeLog;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.camunda.bpm.engine.HistoryService;
 
 import org.camunda.bpm.engine.history.HistoricTaskInstance;
 import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.task.TaskQuery;
+import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,17 +34,82 @@ public class TaskService {
     private final org.camunda.bpm.engine.TaskService camundaTaskService;
     private final HistoryService historyService;
     private final TaskAssignmentRepository taskAssignmentRepository;
+    private final HistoryArchive historyArchive;
+    private final CandidateGroupService candidateGroupService;
+    private final TaskChangeLog taskChangeLog;
+
+    public static final Set<String> TASK_FIELDS = Set.of("id", "name", "description", "assignee",
+            "processInstanceId", "processDefinitionId", "createTime", "dueDate", "priority", "isClaimed");
+
+    // Beyond this many changed tasks a delta is no cheaper than the full inbox
+    private static final int MAX_DELTA_TASKS = 500;
 
     public List<Map<String, Object>> getUserTasks(String userId) {
+        return getUserTasks(userId, FieldSet.ALL);
+    }
+
+    /**
+     * Lists the user's tasks with only the requested fields.
+     */
+    @Timed(value = "workflow.task.list", description = "Listing a user's tasks")
+    public List<Map<String, Object>> getUserTasks(String userId, FieldSet fields) {
+        return findUserTasks(userId, null, fields);
+    }
+
+    /**
+     * Returns the inbox changes since the given cursor: the current state of changed tasks the
+     * user can still see, and the ids of changed tasks that left the inbox. When the change log no
+     * longer covers {@code since}, the cursor is from another node or an earlier run, or too many
+     * tasks changed, the full inbox is returned with {@code reset} set instead.
+     */
+    public Map<String, Object> getTaskChanges(String userId, String since) {
+        List<String> candidateGroups = candidateGroupService.getCandidateGroups(userId);
+        // Read the log before the tasks, so a change made in between is sent again next time
+        TaskChangeLog.Changes changes = taskChangeLog.changesSince(since, userId, candidateGroups);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("seq", changes.getCursor());
+        result.put("reset", changes.isReset());
+        if (changes.isReset() || changes.getTaskIds().size() > MAX_DELTA_TASKS) {
+            result.put("reset", true);
+            result.put("tasks", findUserTasks(userId, null, FieldSet.ALL));
+            result.put("removed", List.of());
+            return result;
+        }
+
+        List<Map<String, Object>> tasks = changes.getTaskIds().isEmpty()
+                ? List.of()
+                : findUserTasks(userId, changes.getTaskIds(), FieldSet.ALL);
+        Set<String> removed = new LinkedHashSet<>(changes.getTaskIds());
+        tasks.forEach(task -> removed.remove((String) task.get("id")));
+        result.put("tasks", tasks);
+        result.put("removed", removed);
+        return result;
+    }
+
+    /**
+     * Finds the user's assigned and candidate tasks, limited to the given task ids if not null.
+     */
+    private List<Map<String, Object>> findUserTasks(String userId, Set<String> onlyTaskIds, FieldSet fields) {
         // Get tasks assigned to user or in candidate groups
-        List<Task> assignedTasks = camundaTaskService.createTaskQuery()
-                .taskAssignee(userId)
+        TaskQuery assignedQuery = camundaTaskService.createTaskQuery().taskAssignee(userId);
+        if (onlyTaskIds != null) {
+            assignedQuery.taskIdIn(onlyTaskIds.toArray(new String[0]));
+        }
+        List<Task> assignedTasks = assignedQuery
                 .orderByTaskCreateTime()
                 .desc()
                 .list();
 
-        List<Task> candidateTasks = camundaTaskService.createTaskQuery()
-                .taskCandidateUser(userId)
+        // Unassigned tasks the user is a candidate for, directly or through one of their groups;
+        // the engine resolves the groups itself for a candidate user, so the cached ones are not passed
+        TaskQuery candidateQuery = camundaTaskService.createTaskQuery()
+                .taskUnassigned()
+                .taskCandidateUser(userId);
+        if (onlyTaskIds != null) {
+            candidateQuery.taskIdIn(onlyTaskIds.toArray(new String[0]));
+        }
+        List<Task> candidateTasks = candidateQuery
                 .orderByTaskCreateTime()
                 .desc()
                 .list();
@@ -44,13 +119,13 @@ public class TaskService {
 
         for (Task task : assignedTasks) {
             if (taskIds.add(task.getId())) {
-                result.add(mapTask(task, true));
+                result.add(mapTask(task, true, fields));
             }
         }
 
         for (Task task : candidateTasks) {
             if (taskIds.add(task.getId())) {
-                result.add(mapTask(task, false));
+                result.add(mapTask(task, false, fields));
             }
         }
 
@@ -66,76 +141,103 @@ public class TaskService {
             return null;
         }
 
-        Map<String, Object> details = mapTask(task, task.getAssignee() != null);
+        Map<String, Object> details = mapTask(task, task.getAssignee() != null, FieldSet.ALL);
         details.put("variables", camundaTaskService.getVariables(taskId));
         return details;
     }
 
     @Transactional
+    @Timed(value = "workflow.task.complete", description = "Completing a task, including the delegates it triggers")
     public void completeTask(String taskId, String userId, Map<String, Object> variables,
                               String comment) {
-        Task task = camundaTaskService.createTaskQuery()
-                .taskId(taskId)
-                .singleResult();
+        TaskOperationEvent event = new TaskOperationEvent();
+        event.begin();
+        try (MDC.MDCCloseable taskField = MDC.putCloseable(LogFields.TASK_ID, taskId)) {
+            Task task = camundaTaskService.createTaskQuery()
+                    .taskId(taskId)
+                    .singleResult();
 
-        if (task == null) {
-            throw new RuntimeException("Task not found: " + taskId);
-        }
+            if (task == null) {
+                throw new RuntimeException("Task not found: " + taskId);
+            }
 
-        // Add comment if provided
-        if (comment != null && !comment.isBlank()) {
-            camundaTaskService.createComment(taskId, task.getProcessInstanceId(), comment);
-        }
+            // Add comment if provided
+            if (comment != null && !comment.isBlank()) {
+                camundaTaskService.createComment(taskId, task.getProcessInstanceId(), comment);
+            }
 
-        // Complete the task
-        if (variables != null && !variables.isEmpty()) {
-            camundaTaskService.complete(taskId, variables);
-        } else {
-            camundaTaskService.complete(taskId);
-        }
+            // Complete the task
+            if (variables != null && !variables.isEmpty()) {
+                camundaTaskService.complete(taskId, variables);
+            } else {
+                camundaTaskService.complete(taskId);
+            }
+
+            // Update tracking record
+            taskAssignmentRepository.findByAssigneeAndStatus(userId, TaskAssignment.Status.CLAIMED)
+                    .stream()
+                    .filter(ta -> ta.getTaskId().equals(taskId))
+                    .findFirst()
+                    .ifPresent(ta -> {
+                        ta.setStatus(TaskAssignment.Status.COMPLETED);
+                        taskAssignmentRepository.save(ta);
+                    });
 
-        // Update tracking record
-        taskAssignmentRepository.findByAssigneeAndStatus(userId, TaskAssignment.Status.CLAIMED)
-                .stream()
-                .filter(ta -> ta.getTaskId().equals(taskId))
-                .findFirst()
-                .ifPresent(ta -> {
-                    ta.setStatus(TaskAssignment.Status.COMPLETED);
-                    taskAssignmentRepository.save(ta);
-                });
-
-        log.info("Task completed: {} by user: {}", taskId, userId);
+            commit(event, TaskOperationEvent.COMPLETE, task, userId);
+            log.info("Task completed");
+        }
     }
 
     @Transactional
+    @Timed(value = "workflow.task.claim", description = "Claiming a task")
     public void claimTask(String taskId, String userId) {
-        camundaTaskService.claim(taskId, userId);
+        TaskOperationEvent event = new TaskOperationEvent();
+        event.begin();
+        try (MDC.MDCCloseable taskField = MDC.putCloseable(LogFields.TASK_ID, taskId)) {
+            camundaTaskService.claim(taskId, userId);
 
-        Task task = camundaTaskService.createTaskQuery()
-                .taskId(taskId)
-                .singleResult();
+            Task task = camundaTaskService.createTaskQuery()
+                    .taskId(taskId)
+                    .singleResult();
 
-        // Track the assignment
-        TaskAssignment assignment = TaskAssignment.builder()
-                .taskId(taskId)
-                .processInstanceId(task.getProcessInstanceId())
-                .assignee(userId)
-                .taskName(task.getName())
-                .status(TaskAssignment.Status.CLAIMED)
-                .dueDate(task.getDueDate() != null
-                        ? task.getDueDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime()
-                        : null)
-                .createdAt(LocalDateTime.now())
-                .build();
-        taskAssignmentRepository.save(assignment);
-
-        log.info("Task claimed: {} by user: {}", taskId, userId);
+            // Track the assignment
+            TaskAssignment assignment = TaskAssignment.builder()
+                    .taskId(taskId)
+                    .processInstanceId(task.getProcessInstanceId())
+                    .assignee(userId)
+                    .taskName(task.getName())
+                    .status(TaskAssignment.Status.CLAIMED)
+                    .dueDate(task.getDueDate() != null
+                            ? task.getDueDate().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime()
+                            : null)
+                    .createdAt(LocalDateTime.now())
+                    .build();
+            taskAssignmentRepository.save(assignment);
+
+            commit(event, TaskOperationEvent.CLAIM, task, userId);
+            log.info("Task claimed");
+        }
+    }
+
+    private static void commit(TaskOperationEvent event, String operation, Task task, String userId) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.processKey = ProcessKeys.fromDefinitionId(task.getProcessDefinitionId());
+            event.activityId = task.getTaskDefinitionKey();
+            event.taskId = task.getId();
+            event.userId = userId;
+            event.commit();
+        }
     }
 
     @Transactional
     public void delegateTask(String taskId, String fromUserId, String toUserId) {
         camundaTaskService.delegateTask(taskId, toUserId);
-        log.info("Task delegated: {} from {} to {}", taskId, fromUserId, toUserId);
+        try (MDC.MDCCloseable taskField = MDC.putCloseable(LogFields.TASK_ID, taskId);
+             MDC.MDCCloseable fromUserField = MDC.putCloseable(LogFields.FROM_USER_ID, fromUserId)) {
+            log.info("Task delegated to {}", toUserId);
+        }
     }
 
     public List<Map<String, Object>> getTaskHistory(String processInstanceId) {
@@ -146,34 +248,95 @@ public class TaskService {
                 .desc()
                 .list();
 
+        if (historicTasks.isEmpty()) {
+            List<Map<String, Object>> archived = findArchivedTaskHistory(processInstanceId);
+            if (archived != null) {
+                return archived;
+            }
+        }
+
         return historicTasks.stream()
-                .map(task -> {
-                    Map<String, Object> map = new HashMap<>();
-                    map.put("id", task.getId());
-                    map.put("name", task.getName());
-                    map.put("assignee", task.getAssignee());
-                    map.put("startTime", task.getStartTime());
-                    map.put("endTime", task.getEndTime());
-                    map.put("durationInMillis", task.getDurationInMillis());
-                    map.put("deleteReason", task.getDeleteReason());
-                    return map;
-                })
+                .map(this::mapHistoricTask)
                 .collect(Collectors.toList());
     }
 
-    private Map<String, Object> mapTask(Task task, boolean isClaimed) {
+    /**
+     * Pages over the task history of a process instance for streaming.
+     */
+    public PagedQuery<Map<String, Object>> taskHistoryPages(String processInstanceId) {
+        return (firstResult, maxResults) -> {
+            List<HistoricTaskInstance> historicTasks = historyService
+                    .createHistoricTaskInstanceQuery()
+                    .processInstanceId(processInstanceId)
+                    .orderByHistoricTaskInstanceEndTime()
+                    .desc()
+                    // Tasks ending together would make page boundaries unstable
+                    .orderByTaskId()
+                    .asc()
+                    .listPage(firstResult, maxResults);
+
+            if (historicTasks.isEmpty() && firstResult == 0) {
+                // Archived tasks are few per instance and come back as one page
+                List<Map<String, Object>> archived = findArchivedTaskHistory(processInstanceId);
+                if (archived != null) {
+                    return archived;
+                }
+            }
+
+            return historicTasks.stream()
+                    .map(this::mapHistoricTask)
+                    .collect(Collectors.toList());
+        };
+    }
+
+    /**
+     * Returns the tasks of an instance moved to the cold archive, or null if it is not archived.
+     */
+    private List<Map<String, Object>> findArchivedTaskHistory(String processInstanceId) {
+        if (historyArchive.isEmpty()) {
+            return null;
+        }
+        // Fall back to the cold archive for instances moved out of the history tables
+        Optional<Map<String, Object>> archived = historyArchive.findByProcessInstanceId(processInstanceId);
+        if (archived.isPresent()) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> tasks = (List<Map<String, Object>>) archived.get().get("tasks");
+            return tasks != null ? tasks : List.of();
+        }
+        return null;
+    }
+
+    private Map<String, Object> mapHistoricTask(HistoricTaskInstance task) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", task.getId());
         map.put("name", task.getName());
-        map.put("description", task.getDescription());
         map.put("assignee", task.getAssignee());
-        map.put("processInstanceId", task.getProcessInstanceId());
-        map.put("processDefinitionId", task.getProcessDefinitionId());
-        map.put("createTime", task.getCreateTime());
-        map.put("dueDate", task.getDueDate());
-        map.put("priority", task.getPriority());
-        map.put("isClaimed", isClaimed);
+        map.put("startTime", task.getStartTime());
+        map.put("endTime", task.getEndTime());
+        map.put("durationInMillis", task.getDurationInMillis());
+        map.put("deleteReason", task.getDeleteReason());
         return map;
     }
 
+    private Map<String, Object> mapTask(Task task, boolean isClaimed, FieldSet fields) {
+        Map<String, Object> map = new HashMap<>();
+        putIfIncluded(map, fields, "id", task.getId());
+        putIfIncluded(map, fields, "name", task.getName());
+        putIfIncluded(map, fields, "description", task.getDescription());
+        putIfIncluded(map, fields, "assignee", task.getAssignee());
+        putIfIncluded(map, fields, "processInstanceId", task.getProcessInstanceId());
+        putIfIncluded(map, fields, "processDefinitionId", task.getProcessDefinitionId());
+        putIfIncluded(map, fields, "createTime", task.getCreateTime());
+        putIfIncluded(map, fields, "dueDate", task.getDueDate());
+        putIfIncluded(map, fields, "priority", task.getPriority());
+        putIfIncluded(map, fields, "isClaimed", isClaimed);
+        return map;
+    }
+
+    private static void putIfIncluded(Map<String, Object> map, FieldSet fields, String field, Object value) {
+        if (fields.includes(field)) {
+            map.put(field, value);
+        }
+    }
+
 }
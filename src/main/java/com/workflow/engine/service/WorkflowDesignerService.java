@@ -1,19 +1,21 @@
 package com.workflow.engine.service;
 
+import com.service.OffHeapCache;
+import com.workflow.engine.cache.CacheNames;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.camunda.bpm.engine.RepositoryService;
 import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 
 @Service
@@ -22,18 +24,19 @@ import java.util.stream.Collectors;
 public class WorkflowDesignerService {
 
     private final RepositoryService repositoryService;
+    private final ProcessDefinitionLookupService processDefinitionLookupService;
+    private final OffHeapCache<String> bpmnModelCache;
 
     /**
      * Validates a deployed BPMN process definition.
      * Checks for common issues like missing start/end events, unconnected elements, etc.
      */
+    @Cacheable(value = CacheNames.BPMN_VALIDATION, unless = "#result.containsKey('error')")
     public Map<String, Object> validateBpmn(String processDefinitionId) {
         Map<String, Object> result = new HashMap<>();
 
         try {
-            ProcessDefinition definition = repositoryService.createProcessDefinitionQuery()
-                    .processDefinitionId(processDefinitionId)
-                    .singleResult();
+            ProcessDefinition definition = processDefinitionLookupService.findById(processDefinitionId);
 
             if (definition == null) {
                 result.put("valid", false);
@@ -84,28 +87,38 @@ public class WorkflowDesignerService {
      * Exports the BPMN XML for a given process definition.
      */
     public String exportBpmn(String processDefinitionId) {
+        ByteBuffer bpmnBytes = exportBpmnBytes(processDefinitionId);
+        return bpmnBytes != null ? StandardCharsets.UTF_8.decode(bpmnBytes).toString() : null;
+    }
+
+    /**
+     * Returns the raw BPMN XML bytes of a process definition from the model cache, loading them
+     * from the engine on a miss. Callers can write the buffer to a response without decoding it.
+     *
+     * @return a read-only buffer positioned at the start of the model, or null if not found
+     */
+    public ByteBuffer exportBpmnBytes(String processDefinitionId) {
         try {
-            ProcessDefinition definition = repositoryService.createProcessDefinitionQuery()
-                    .processDefinitionId(processDefinitionId)
-                    .singleResult();
+            // Concurrent misses share one load in the model cache; each caller gets its own view
+            return bpmnModelCache.getOrLoad(processDefinitionId, this::readProcessModel);
+        } catch (UncheckedIOException e) {
+            log.error("Error exporting BPMN for: {}", processDefinitionId, e.getCause());
+            return null;
+        }
+    }
 
-            if (definition == null) {
-                log.warn("Process definition not found: {}", processDefinitionId);
-                return null;
-            }
+    private byte[] readProcessModel(String processDefinitionId) {
+        ProcessDefinition definition = processDefinitionLookupService.findById(processDefinitionId);
 
-            InputStream bpmnStream = repositoryService.getProcessModel(processDefinitionId);
-            if (bpmnStream == null) {
-                return null;
-            }
+        if (definition == null) {
+            log.warn("Process definition not found: {}", processDefinitionId);
+            return null;
+        }
 
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(bpmnStream, StandardCharsets.UTF_8))) {
-                return reader.lines().collect(Collectors.joining("\n"));
-            }
+        try (InputStream bpmnStream = repositoryService.getProcessModel(processDefinitionId)) {
+            return bpmnStream != null ? bpmnStream.readAllBytes() : null;
         } catch (IOException e) {
-            log.error("Error exporting BPMN for: {}", processDefinitionId, e);
-            return null;
+            throw new UncheckedIOException(e);
         }
     }
 
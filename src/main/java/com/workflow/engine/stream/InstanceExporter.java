@@ -0,0 +1,230 @@
+package com.workflow.engine.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.history.HistoricProcessInstance;
+import org.camunda.bpm.engine.history.HistoricVariableInstance;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.runtime.VariableInstance;
+import org.camunda.bpm.engine.variable.value.ObjectValue;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports all instances of a process definition key as NDJSON, one instance with its
+ * process-level variables per line.
+ *
+ * <p>Instances are read in two passes ordered by id: first everything in the history table
+ * (running and ended instances), then running instances that have no history, e.g. because
+ * their definition's history level is none. Both passes use keyset pagination, so every line
+ * carries a cursor ({@code h:<id>} or {@code r:<id>}) from which an interrupted export resumes.
+ * Variables are read in one query per batch of instances; serialized objects are exported in
+ * their serialized form and binary values are left out, so memory stays bounded by the batch size.
+ */
+@Service
+@Slf4j
+public class InstanceExporter {
+
+    private static final String HISTORY_PASS = "h";
+    private static final String RUNTIME_PASS = "r";
+
+    private final HistoryService historyService;
+    private final RuntimeService runtimeService;
+    private final ManagementService managementService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public InstanceExporter(HistoryService historyService,
+                            RuntimeService runtimeService,
+                            ManagementService managementService,
+                            ObjectMapper objectMapper,
+                            @Value("${app.export.batch-size:1000}") int batchSize) {
+        this.historyService = historyService;
+        this.runtimeService = runtimeService;
+        this.managementService = managementService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Checks a resume cursor before the response starts.
+     * @throws ResponseStatusException with status 400 for a malformed cursor
+     */
+    public void validateCursor(String cursor) {
+        parseCursor(cursor);
+    }
+
+    /**
+     * Writes all instances of the definition key after the cursor, flushing after every batch.
+     * @param cursor cursor of the last line received, or null to start from the beginning
+     * @return number of exported instances
+     */
+    public long export(String processDefinitionKey, String cursor, OutputStream outputStream) throws IOException {
+        String[] position = parseCursor(cursor);
+        long exported = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            if (HISTORY_PASS.equals(position[0])) {
+                String afterId = position[1];
+                List<HistoricProcessInstance> batch;
+                do {
+                    batch = nextHistoricBatch(processDefinitionKey, afterId);
+                    exported += writeHistoricBatch(batch, generator);
+                    if (!batch.isEmpty()) {
+                        afterId = batch.get(batch.size() - 1).getId();
+                    }
+                } while (batch.size() == batchSize);
+                position = new String[] {RUNTIME_PASS, ""};
+            }
+
+            String afterId = position[1];
+            List<ProcessInstance> batch;
+            do {
+                batch = nextRuntimeOnlyBatch(processDefinitionKey, afterId);
+                exported += writeRuntimeBatch(batch, generator);
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == batchSize);
+        }
+
+        log.info("Exported {} instances of {}", exported, processDefinitionKey);
+        return exported;
+    }
+
+    private List<HistoricProcessInstance> nextHistoricBatch(String processDefinitionKey, String afterId) {
+        String table = managementService.getTableName(HistoricProcessInstance.class);
+        return historyService.createNativeHistoricProcessInstanceQuery()
+                .sql("SELECT * FROM " + table
+                        + " WHERE PROC_DEF_KEY_ = #{key} AND ID_ > #{afterId} ORDER BY ID_")
+                .parameter("key", processDefinitionKey)
+                .parameter("afterId", afterId)
+                .listPage(0, batchSize);
+    }
+
+    private List<ProcessInstance> nextRuntimeOnlyBatch(String processDefinitionKey, String afterId) {
+        String executions = managementService.getTableName(ProcessInstance.class);
+        String definitions = managementService.getTableName(ProcessDefinition.class);
+        String history = managementService.getTableName(HistoricProcessInstance.class);
+        return runtimeService.createNativeProcessInstanceQuery()
+                .sql("SELECT RES.* FROM " + executions + " RES"
+                        + " INNER JOIN " + definitions + " DEF ON DEF.ID_ = RES.PROC_DEF_ID_"
+                        + " WHERE RES.ID_ = RES.PROC_INST_ID_ AND DEF.KEY_ = #{key} AND RES.ID_ > #{afterId}"
+                        + " AND NOT EXISTS (SELECT 1 FROM " + history + " HI WHERE HI.ID_ = RES.ID_)"
+                        + " ORDER BY RES.ID_")
+                .parameter("key", processDefinitionKey)
+                .parameter("afterId", afterId)
+                .listPage(0, batchSize);
+    }
+
+    private int writeHistoricBatch(List<HistoricProcessInstance> batch, JsonGenerator generator) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        String[] ids = batch.stream().map(HistoricProcessInstance::getId).toArray(String[]::new);
+
+        // Process-level variables have the process instance as their activity instance
+        Map<String, Map<String, Object>> variables = new HashMap<>();
+        for (HistoricVariableInstance variable : historyService.createHistoricVariableInstanceQuery()
+                .activityInstanceIdIn(ids)
+                .disableBinaryFetching()
+                .disableCustomObjectDeserialization()
+                .list()) {
+            variables.computeIfAbsent(variable.getProcessInstanceId(), id -> new LinkedHashMap<>())
+                    .put(variable.getName(), exportValue(variable.getTypedValue()));
+        }
+
+        for (HistoricProcessInstance instance : batch) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("cursor", HISTORY_PASS + ":" + instance.getId());
+            line.put("id", instance.getId());
+            line.put("processDefinitionId", instance.getProcessDefinitionId());
+            line.put("businessKey", instance.getBusinessKey());
+            line.put("state", instance.getState());
+            line.put("startTime", instance.getStartTime());
+            line.put("endTime", instance.getEndTime());
+            line.put("deleteReason", instance.getDeleteReason());
+            line.put("variables", variables.getOrDefault(instance.getId(), Map.of()));
+            writeLine(line, generator);
+        }
+        generator.flush();
+        return batch.size();
+    }
+
+    private int writeRuntimeBatch(List<ProcessInstance> batch, JsonGenerator generator) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        String[] ids = batch.stream().map(ProcessInstance::getId).toArray(String[]::new);
+
+        Map<String, Map<String, Object>> variables = new HashMap<>();
+        for (VariableInstance variable : runtimeService.createVariableInstanceQuery()
+                .variableScopeIdIn(ids)
+                .disableBinaryFetching()
+                .disableCustomObjectDeserialization()
+                .list()) {
+            variables.computeIfAbsent(variable.getProcessInstanceId(), id -> new LinkedHashMap<>())
+                    .put(variable.getName(), exportValue(variable.getTypedValue()));
+        }
+
+        for (ProcessInstance instance : batch) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("cursor", RUNTIME_PASS + ":" + instance.getId());
+            line.put("id", instance.getId());
+            line.put("processDefinitionId", instance.getProcessDefinitionId());
+            line.put("businessKey", instance.getBusinessKey());
+            line.put("state", instance.isSuspended() ? "SUSPENDED" : "ACTIVE");
+            line.put("variables", variables.getOrDefault(instance.getId(), Map.of()));
+            writeLine(line, generator);
+        }
+        generator.flush();
+        return batch.size();
+    }
+
+    private static void writeLine(Map<String, Object> line, JsonGenerator generator) throws IOException {
+        generator.writeObject(line);
+        generator.writeRaw('\n');
+    }
+
+    private static Object exportValue(TypedValue value) {
+        if (value instanceof ObjectValue && !((ObjectValue) value).isDeserialized()) {
+            ObjectValue objectValue = (ObjectValue) value;
+            Map<String, Object> serialized = new LinkedHashMap<>();
+            serialized.put("objectTypeName", objectValue.getObjectTypeName());
+            serialized.put("serializationDataFormat", objectValue.getSerializationDataFormat());
+            serialized.put("value", objectValue.getValueSerialized());
+            return serialized;
+        }
+        return value != null ? value.getValue() : null;
+    }
+
+    private static String[] parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new String[] {HISTORY_PASS, ""};
+        }
+        int separator = cursor.indexOf(':');
+        String pass = separator > 0 ? cursor.substring(0, separator) : "";
+        if (!HISTORY_PASS.equals(pass) && !RUNTIME_PASS.equals(pass)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid export cursor: " + cursor);
+        }
+        return new String[] {pass, cursor.substring(separator + 1)};
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.workflow.engine.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes a JSON array of rows while they are read page by page, so only one page is held in
+ * memory and the first rows reach the client before the last page is read. Rows are written
+ * with the application's {@link ObjectMapper}, so they serialize like a regular response.
+ */
+@Component
+public class JsonRowStreamer {
+
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+
+    public JsonRowStreamer(ObjectMapper objectMapper, @Value("${app.stream.page-size:500}") int pageSize) {
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+    }
+
+    public StreamingResponseBody stream(PagedQuery<?> query) {
+        return outputStream -> write(query, outputStream);
+    }
+
+    /**
+     * Writes all pages as one JSON array, flushing after every page.
+     */
+    public void write(PagedQuery<?> query, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // The container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            for (int firstResult = 0; ; firstResult += pageSize) {
+                List<?> page = query.page(firstResult, pageSize);
+                for (Object row : page) {
+                    generator.writeObject(row);
+                }
+                generator.flush();
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.workflow.engine.stream;
+
+import java.util.List;
+
+/**
+ * Reads one page of rows, e.g. through a Camunda query's {@code listPage}.
+ * A page shorter than {@code maxResults} is taken as the last one.
+ */
+@FunctionalInterface
+public interface PagedQuery<T> {
+
+    List<T> page(int firstResult, int maxResults);
+
+}
@@ -0,0 +1,56 @@
+package com.workflow.engine.sync;
+
+import org.camunda.bpm.engine.delegate.ExecutionListener;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.impl.bpmn.behavior.UserTaskActivityBehavior;
+import org.camunda.bpm.engine.impl.bpmn.parser.AbstractBpmnParseListener;
+import org.camunda.bpm.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.camunda.bpm.engine.impl.pvm.process.ActivityImpl;
+import org.camunda.bpm.engine.impl.pvm.process.ScopeImpl;
+import org.camunda.bpm.engine.impl.task.TaskDefinition;
+import org.camunda.bpm.engine.impl.util.xml.Element;
+
+import java.util.List;
+
+/**
+ * Feeds {@link ChangeVersions} from engine events: deployments change the catalog, process
+ * starts and ends change its instance counts, and user task events change inboxes and are
+ * recorded in the {@link TaskChangeLog}. Listeners
+ * are registered as built-in so they also run when custom listeners are skipped.
+ */
+public class ChangeTrackingParseListener extends AbstractBpmnParseListener {
+
+    private static final List<String> TASK_EVENTS = List.of(
+            TaskListener.EVENTNAME_CREATE,
+            TaskListener.EVENTNAME_ASSIGNMENT,
+            TaskListener.EVENTNAME_UPDATE,
+            TaskListener.EVENTNAME_COMPLETE,
+            TaskListener.EVENTNAME_DELETE);
+
+    private final ChangeVersions changeVersions;
+    private final TaskChangeListener taskChangeListener;
+    private final ExecutionListener instanceCountListener;
+
+    public ChangeTrackingParseListener(ChangeVersions changeVersions, TaskChangeLog taskChangeLog,
+                                       int maxTrackedTasks) {
+        this.changeVersions = changeVersions;
+        this.taskChangeListener = new TaskChangeListener(changeVersions, taskChangeLog, maxTrackedTasks);
+        this.instanceCountListener = execution -> TransactionHooks.afterCommit(changeVersions::instanceCountsChanged);
+    }
+
+    @Override
+    public void parseProcess(Element processElement, ProcessDefinitionEntity processDefinition) {
+        TransactionHooks.afterCommit(changeVersions::catalogChanged);
+        processDefinition.addBuiltInListener(ExecutionListener.EVENTNAME_START, instanceCountListener);
+        processDefinition.addBuiltInListener(ExecutionListener.EVENTNAME_END, instanceCountListener);
+    }
+
+    @Override
+    public void parseUserTask(Element userTaskElement, ScopeImpl scope, ActivityImpl activity) {
+        TaskDefinition taskDefinition = ((UserTaskActivityBehavior) activity.getActivityBehavior()).getTaskDefinition();
+        for (String eventName : TASK_EVENTS) {
+            taskDefinition.addBuiltInTaskListener(eventName, taskChangeListener);
+        }
+    }
+
+}
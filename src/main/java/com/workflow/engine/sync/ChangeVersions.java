@@ -0,0 +1,108 @@
+package com.workflow.engine.sync;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change versions of the task inboxes and the process definition catalog, used as ETags so
+ * list endpoints can answer {@code 304 Not Modified} without querying the engine.
+ *
+ * <p>Versions are taken from one sequence and recorded per user and per group when a task
+ * visible to them changes. A user's inbox version is the highest version of the user and their
+ * candidate groups. Versions are bumped after the engine transaction commits, and ETags are
+ * read before the list is built, so a response is never older than its ETag.
+ *
+ * <p>Versions live in memory: ETags carry the start time of this node and change on restart.
+ * With several nodes behind a load balancer, requests must stick to one node.
+ */
+@Component
+public class ChangeVersions {
+
+    private static final String USER_PREFIX = "user:";
+    private static final String GROUP_PREFIX = "group:";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, Long> inboxVersions = new ConcurrentHashMap<>();
+    private final AtomicLong allInboxesVersion = new AtomicLong();
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final AtomicBoolean instanceCountsChanged = new AtomicBoolean();
+    private volatile long lastCatalogBumpMillis;
+
+    @Value("${app.sync.catalog-count-refresh-ms:10000}")
+    private long catalogCountRefreshMs;
+
+    /**
+     * Records a change to tasks visible to the given users and groups.
+     */
+    public void inboxesChanged(Collection<String> userIds, Collection<String> groupIds) {
+        long version = sequence.incrementAndGet();
+        userIds.forEach(userId -> inboxVersions.merge(USER_PREFIX + userId, version, Math::max));
+        groupIds.forEach(groupId -> inboxVersions.merge(GROUP_PREFIX + groupId, version, Math::max));
+    }
+
+    /**
+     * Records a change whose audience is unknown, invalidating every inbox.
+     */
+    public void allInboxesChanged() {
+        allInboxesVersion.set(sequence.incrementAndGet());
+    }
+
+    /**
+     * Records a change to the deployed definitions.
+     */
+    public void catalogChanged() {
+        instanceCountsChanged.set(false);
+        bumpCatalog();
+    }
+
+    /**
+     * Records that active instance counts changed. To avoid a new catalog version for every
+     * started or ended instance, these changes are folded into at most one version per refresh
+     * interval, as the listing cache did before.
+     */
+    public void instanceCountsChanged() {
+        instanceCountsChanged.set(true);
+    }
+
+    public long inboxVersion(String userId, List<String> groupIds) {
+        long version = Math.max(allInboxesVersion.get(), inboxVersions.getOrDefault(USER_PREFIX + userId, 0L));
+        for (String groupId : groupIds) {
+            version = Math.max(version, inboxVersions.getOrDefault(GROUP_PREFIX + groupId, 0L));
+        }
+        return version;
+    }
+
+    public long catalogVersion() {
+        if (instanceCountsChanged.get()
+                && System.currentTimeMillis() - lastCatalogBumpMillis >= catalogCountRefreshMs
+                && instanceCountsChanged.compareAndSet(true, false)) {
+            bumpCatalog();
+        }
+        return catalogVersion.get();
+    }
+
+    /**
+     * Returns the ETag of a user's inbox. The candidate groups are part of the tag, so a change
+     * in group membership also changes it.
+     */
+    public String inboxEtag(String userId, List<String> groupIds) {
+        return "inbox-" + epoch + "-" + inboxVersion(userId, groupIds) + "-" + Integer.toHexString(groupIds.hashCode());
+    }
+
+    public String catalogEtag() {
+        return "catalog-" + epoch + "-" + catalogVersion();
+    }
+
+    private void bumpCatalog() {
+        lastCatalogBumpMillis = System.currentTimeMillis();
+        catalogVersion.set(sequence.incrementAndGet());
+    }
+
+}
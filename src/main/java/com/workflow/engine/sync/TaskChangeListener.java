@@ -0,0 +1,104 @@
+package com.workflow.engine.sync;
+
+import org.camunda.bpm.engine.delegate.DelegateTask;
+import org.camunda.bpm.engine.delegate.TaskListener;
+import org.camunda.bpm.engine.impl.persistence.entity.PropertyChange;
+import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.task.IdentityLink;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bumps the inbox versions of everyone who could see a task before or after a task event, and
+ * records the event in the {@link TaskChangeLog}.
+ * The users and groups last seen for each open task are remembered, so a reassignment or a
+ * removed candidate also refreshes the inbox the task left. Tasks that end without an event on
+ * this node (completed on another node, or deleted with listeners skipped) would stay there, so
+ * at most {@code maxTrackedTasks} are kept and the least recently changed are dropped; a dropped
+ * task is treated like one created before this node started.
+ */
+public class TaskChangeListener implements TaskListener {
+
+    private final ChangeVersions changeVersions;
+    private final TaskChangeLog taskChangeLog;
+    private final Map<String, Audience> audiences;
+
+    public TaskChangeListener(ChangeVersions changeVersions, TaskChangeLog taskChangeLog, int maxTrackedTasks) {
+        this.changeVersions = changeVersions;
+        this.taskChangeLog = taskChangeLog;
+        this.audiences = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Audience> eldest) {
+                return size() > maxTrackedTasks;
+            }
+        });
+    }
+
+    @Override
+    public void notify(DelegateTask delegateTask) {
+        String eventName = delegateTask.getEventName();
+        boolean ended = EVENTNAME_COMPLETE.equals(eventName) || EVENTNAME_DELETE.equals(eventName);
+
+        Audience current = Audience.of(delegateTask);
+        Audience previous = ended
+                ? audiences.remove(delegateTask.getId())
+                : audiences.put(delegateTask.getId(), current);
+
+        String taskId = delegateTask.getId();
+        if (previous == null && !EVENTNAME_CREATE.equals(eventName)) {
+            // Task created before this node started: who saw it before is unknown
+            TransactionHooks.afterCommit(() -> {
+                changeVersions.allInboxesChanged();
+                taskChangeLog.appendForEveryone(taskId);
+            });
+            return;
+        }
+
+        Set<String> userIds = new HashSet<>(current.userIds);
+        Set<String> groupIds = new HashSet<>(current.groupIds);
+        if (previous != null) {
+            userIds.addAll(previous.userIds);
+            groupIds.addAll(previous.groupIds);
+        }
+        TransactionHooks.afterCommit(() -> {
+            changeVersions.inboxesChanged(userIds, groupIds);
+            taskChangeLog.append(taskId, userIds, groupIds);
+        });
+    }
+
+    private static final class Audience {
+
+        private final Set<String> userIds = new HashSet<>();
+        private final Set<String> groupIds = new HashSet<>();
+
+        static Audience of(DelegateTask delegateTask) {
+            Audience audience = new Audience();
+            audience.addUser(delegateTask.getAssignee());
+            audience.addUser(delegateTask.getOwner());
+            if (delegateTask instanceof TaskEntity) {
+                PropertyChange assigneeChange = ((TaskEntity) delegateTask).getPropertyChanges().get(TaskEntity.ASSIGNEE);
+                if (assigneeChange != null) {
+                    audience.addUser((String) assigneeChange.getOrgValue());
+                }
+            }
+            for (IdentityLink candidate : delegateTask.getCandidates()) {
+                audience.addUser(candidate.getUserId());
+                if (candidate.getGroupId() != null) {
+                    audience.groupIds.add(candidate.getGroupId());
+                }
+            }
+            return audience;
+        }
+
+        private void addUser(String userId) {
+            if (userId != null) {
+                userIds.add(userId);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.workflow.engine.sync;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compact, bounded log of task changes for delta sync of the inbox. Each entry records only the
+ * task id and who could see the task before or after the change; clients reload the current
+ * state of the changed tasks they can see.
+ *
+ * <p>Clients get an opaque cursor made of this log's epoch and sequence number. The epoch is
+ * random per log instance, so a cursor from before a restart or from another node is answered
+ * with a reset instead of being compared with sequence numbers it has nothing to do with.
+ */
+@Component
+public class TaskChangeLog {
+
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final Entry[] entries;
+    private long nextSeq = 1;
+    private long oldestSeq = nextSeq;
+
+    public TaskChangeLog(@Value("${app.sync.task-change-log.capacity:10000}") int capacity) {
+        this.entries = new Entry[capacity];
+    }
+
+    /**
+     * Appends a change visible to the given users and groups.
+     */
+    public synchronized void append(String taskId, Collection<String> userIds, Collection<String> groupIds) {
+        add(new Entry(taskId, Set.copyOf(userIds), Set.copyOf(groupIds), false));
+    }
+
+    /**
+     * Appends a change whose audience is unknown; it is returned to every user.
+     */
+    public synchronized void appendForEveryone(String taskId) {
+        add(new Entry(taskId, Set.of(), Set.of(), true));
+    }
+
+    /**
+     * Returns the ids of tasks changed after the given cursor that are relevant to the user, or a
+     * reset if the cursor is missing, comes from another log, or the log no longer holds all
+     * changes since then.
+     */
+    public synchronized Changes changesSince(String cursor, String userId, List<String> groupIds) {
+        long latestSeq = nextSeq - 1;
+        long since = parseSeq(cursor);
+        if (since < oldestSeq - 1 || since > latestSeq) {
+            return new Changes(cursor(latestSeq), true, Set.of());
+        }
+
+        Set<String> taskIds = new LinkedHashSet<>();
+        for (long seq = since + 1; seq <= latestSeq; seq++) {
+            Entry entry = entries[(int) (seq % entries.length)];
+            if (entry.isVisibleTo(userId, groupIds)) {
+                taskIds.add(entry.taskId);
+            }
+        }
+        return new Changes(cursor(latestSeq), false, taskIds);
+    }
+
+    public synchronized String latestCursor() {
+        return cursor(nextSeq - 1);
+    }
+
+    private String cursor(long seq) {
+        return epoch + "." + seq;
+    }
+
+    /**
+     * Returns the sequence number of a cursor issued by this log, or -1 for any other cursor.
+     */
+    private long parseSeq(String cursor) {
+        if (cursor == null || !cursor.startsWith(epoch + ".")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(cursor.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void add(Entry entry) {
+        entries[(int) (nextSeq % entries.length)] = entry;
+        nextSeq++;
+        if (nextSeq - oldestSeq > entries.length) {
+            oldestSeq = nextSeq - entries.length;
+        }
+    }
+
+    @Getter
+    public static class Changes {
+
+        private final String cursor;
+        private final boolean reset;
+        private final Set<String> taskIds;
+
+        Changes(String cursor, boolean reset, Set<String> taskIds) {
+            this.cursor = cursor;
+            this.reset = reset;
+            this.taskIds = taskIds;
+        }
+    }
+
+    private static final class Entry {
+
+        private final String taskId;
+        private final Set<String> userIds;
+        private final Set<String> groupIds;
+        private final boolean everyone;
+
+        Entry(String taskId, Set<String> userIds, Set<String> groupIds, boolean everyone) {
+            this.taskId = taskId;
+            this.userIds = userIds;
+            this.groupIds = groupIds;
+            this.everyone = everyone;
+        }
+
+        boolean isVisibleTo(String userId, List<String> candidateGroups) {
+            if (everyone || userIds.contains(userId)) {
+                return true;
+            }
+            for (String groupId : candidateGroups) {
+                if (groupIds.contains(groupId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
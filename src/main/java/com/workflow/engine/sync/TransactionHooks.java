@@ -0,0 +1,27 @@
+package com.workflow.engine.sync;
+
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+
+/**
+ * Defers change notifications until the engine transaction commits, so clients never see a
+ * new version before the data behind it is visible.
+ */
+final class TransactionHooks {
+
+    private TransactionHooks() {
+        // Prevent instantiation
+    }
+
+    static void afterCommit(Runnable action) {
+        CommandContext commandContext = Context.getCommandContext();
+        if (commandContext != null) {
+            commandContext.getTransactionContext()
+                    .addTransactionListener(TransactionState.COMMITTED, ctx -> action.run());
+        } else {
+            action.run();
+        }
+    }
+
+}